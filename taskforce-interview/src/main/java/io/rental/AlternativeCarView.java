@@ -0,0 +1,55 @@
+package io.rental;
+
+import io.utils.DatePeriod;
+
+/**
+ * Customer view of a car offered in place of (or as well as) what was asked for, from
+ * {@link CarRentalCompany#getAlternativeCarsCustomerView}
+ */
+public class AlternativeCarView extends CarView {
+
+    public enum Kind {
+        /** Matches the criteria, free for the requested period */
+        REQUESTED,
+        /** Matches the criteria, free for the requested period moved by {@link #getShiftDays()} */
+        SHIFTED,
+        /** Doesn't match the criteria, but is free for the requested period */
+        OTHER_GROUP
+    }
+
+    private final Kind kind;
+    private final DatePeriod period;
+    private final int shiftDays;
+
+    AlternativeCarView(CarView view, Kind kind, DatePeriod period, int shiftDays) {
+        super(view.getMake(), view.getModel(), view.getRentalGroup(), view.getRentalGroupPrice());
+        this.kind = kind;
+        this.period = period;
+        this.shiftDays = shiftDays;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The period the car is free for
+     */
+    public DatePeriod getPeriod() {
+        return period;
+    }
+
+    /**
+     * Days later (or, when negative, earlier) than requested
+     */
+    public int getShiftDays() {
+        return shiftDays;
+    }
+
+    @Override
+    public String toString() {
+        return "AlternativeCarView [" + getMake() + " " + getModel() + " rentalGroup=" + getRentalGroup()
+            + ", rentalGroupPrice=" + getRentalGroupPrice() + ", " + kind + " " + period.getStart() + ".."
+            + period.getEnd() + " shift=" + shiftDays + "]";
+    }
+}
@@ -0,0 +1,218 @@
+package io.rental;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import io.utils.DatePeriod;
+
+/**
+ * <p>Non-blocking facade over the Rental Shop {@link CarRentalCompany API}</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Mirrors the search and booking methods of {@link CarRentalCompany}, each returning a {@link CompletableFuture}.</li>
+ * <li>Failures (e.g. conflicting bookings) complete the future exceptionally rather than throwing.</li>
+ * </ul>
+ */
+public interface AsyncCarRentalCompany extends AutoCloseable {
+
+    // Shop View
+    CompletableFuture<List<Car>> getMatchingCars(Criteria criteria);
+    CompletableFuture<List<Car>> getAvailableCars(DatePeriod period);
+    CompletableFuture<List<Car>> getAvailableCars(Criteria criteria, DatePeriod period);
+    CompletableFuture<List<Car>> getCheapestAvailableCars(Criteria criteria, DatePeriod period, int limit);
+    CompletableFuture<Map<String, Double>> getGroupPricing();
+
+    // Customer View
+    CompletableFuture<List<CarView>> getMatchingCarsCustomerView(Criteria criteria);
+    CompletableFuture<List<CarView>> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period);
+    CompletableFuture<List<CarView>> getCheapestAvailableCarsCustomerView(Criteria criteria, DatePeriod period, int limit);
+
+    CompletableFuture<Booking> bookCar(Car car, Renter renter, DatePeriod period, double agreedPrice);
+    CompletableFuture<List<BookingResult>> bookCars(List<BookingRequest> requests, BookingRequest.Mode mode);
+    CompletableFuture<Boolean> cancelBooking(Booking booking);
+    CompletableFuture<Boolean> cancelBooking(long bookingId);
+
+    CompletableFuture<List<MaintenanceResult>> bookMaintenance(String reason, Car car, DatePeriod period);
+    CompletableFuture<List<Booking>> getBookingsForPeriod(DatePeriod period);
+    CompletableFuture<Optional<Booking>> getBooking(long bookingId);
+    CompletableFuture<Booking> holdCar(Car car, Renter renter, DatePeriod period, double agreedPrice, Duration ttl);
+    CompletableFuture<Booking> confirmHold(long holdId);
+    CompletableFuture<Boolean> releaseHold(long holdId);
+    CompletableFuture<List<Booking>> getBookingsForRenter(String drivingLicenseNumber);
+    CompletableFuture<List<Booking>> getBookingsForRenter(String drivingLicenseNumber, DatePeriod period);
+    CompletableFuture<Boolean> hasBookingDuring(String drivingLicenseNumber, DatePeriod period);
+
+    @Override
+    void close();
+}
+
+/**
+ * <p>Runs each call to the wrapped (blocking) {@link CarRentalCompany} on its own virtual thread.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Virtual threads are cheap to park, so thousands of requests can wait on the company lock (or on a
+ * persistent repo) without holding a platform thread each.</li>
+ * <li>Concurrency into the wrapped API is bounded by a {@link Semaphore}; excess requests queue as parked
+ * virtual threads rather than piling onto the lock.</li>
+ * <li>The wrapped API is still responsible for its own thread-safety.</li>
+ * </ul>
+ */
+class VirtualThreadCarRentalCompany implements AsyncCarRentalCompany {
+
+    static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    private final CarRentalCompany api;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public VirtualThreadCarRentalCompany(CarRentalCompany api) {
+        this(api, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public VirtualThreadCarRentalCompany(CarRentalCompany api, int maxConcurrency) {
+        assert maxConcurrency > 0;
+        this.api = api;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public CompletableFuture<List<Car>> getMatchingCars(Criteria criteria) {
+        return submit(() -> api.getMatchingCars(criteria));
+    }
+
+    @Override
+    public CompletableFuture<List<Car>> getAvailableCars(DatePeriod period) {
+        return submit(() -> api.getAvailableCars(period));
+    }
+
+    @Override
+    public CompletableFuture<List<Car>> getAvailableCars(Criteria criteria, DatePeriod period) {
+        return submit(() -> api.getAvailableCars(criteria, period));
+    }
+
+    @Override
+    public CompletableFuture<List<Car>> getCheapestAvailableCars(Criteria criteria, DatePeriod period, int limit) {
+        return submit(() -> api.getCheapestAvailableCars(criteria, period, limit));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Double>> getGroupPricing() {
+        return submit(() -> api.getGroupPricing());
+    }
+
+    @Override
+    public CompletableFuture<List<CarView>> getMatchingCarsCustomerView(Criteria criteria) {
+        return submit(() -> api.getMatchingCarsCustomerView(criteria));
+    }
+
+    @Override
+    public CompletableFuture<List<CarView>> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
+        return submit(() -> api.getAvailableCarsCustomerView(criteria, period));
+    }
+
+    @Override
+    public CompletableFuture<List<CarView>> getCheapestAvailableCarsCustomerView(Criteria criteria, DatePeriod period, int limit) {
+        return submit(() -> api.getCheapestAvailableCarsCustomerView(criteria, period, limit));
+    }
+
+    @Override
+    public CompletableFuture<Booking> bookCar(Car car, Renter renter, DatePeriod period, double agreedPrice) {
+        return submit(() -> api.bookCar(car, renter, period, agreedPrice));
+    }
+
+    @Override
+    public CompletableFuture<List<BookingResult>> bookCars(List<BookingRequest> requests, BookingRequest.Mode mode) {
+        return submit(() -> api.bookCars(requests, mode));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelBooking(Booking booking) {
+        return submit(() -> api.cancelBooking(booking));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelBooking(long bookingId) {
+        return submit(() -> api.cancelBooking(bookingId));
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceResult>> bookMaintenance(String reason, Car car, DatePeriod period) {
+        return submit(() -> api.bookMaintenance(reason, car, period));
+    }
+
+    @Override
+    public CompletableFuture<List<Booking>> getBookingsForPeriod(DatePeriod period) {
+        return submit(() -> api.getBookingsForPeriod(period));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Booking>> getBooking(long bookingId) {
+        return submit(() -> api.getBooking(bookingId));
+    }
+
+    @Override
+    public CompletableFuture<Booking> holdCar(Car car, Renter renter, DatePeriod period, double agreedPrice,
+            Duration ttl) {
+        return submit(() -> api.holdCar(car, renter, period, agreedPrice, ttl));
+    }
+
+    @Override
+    public CompletableFuture<Booking> confirmHold(long holdId) {
+        return submit(() -> api.confirmHold(holdId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> releaseHold(long holdId) {
+        return submit(() -> api.releaseHold(holdId));
+    }
+
+    @Override
+    public CompletableFuture<List<Booking>> getBookingsForRenter(String drivingLicenseNumber) {
+        return submit(() -> api.getBookingsForRenter(drivingLicenseNumber));
+    }
+
+    @Override
+    public CompletableFuture<List<Booking>> getBookingsForRenter(String drivingLicenseNumber, DatePeriod period) {
+        return submit(() -> api.getBookingsForRenter(drivingLicenseNumber, period));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasBookingDuring(String drivingLicenseNumber, DatePeriod period) {
+        return submit(() -> api.hasBookingDuring(drivingLicenseNumber, period));
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+                try {
+                    future.complete(call.call());
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (Throwable e) {
+                // Errors too, or the caller waits forever on a future nothing will complete
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,176 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.utils.DatePeriod;
+
+/**
+ * <p>How many cars of each rental group are free on each day - counts only, no car lists.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>A car is free on a day when it has no booking (customer or maintenance) covering it.</li>
+ * <li>Per-day counts: a car free on each day of a period isn't necessarily free for the whole period
+ * (use {@link CarRentalCompany#countAvailableCars} for that).</li>
+ * <li>Only days inside the {@link #getWindow() window} are tracked; asking about others is an
+ * {@link IllegalArgumentException}.</li>
+ * </ul>
+ */
+public interface AvailabilityHeatmap {
+
+    int getFreeCarCount(String rentalGroup, LocalDate day);
+
+    /**
+     * Free cars of the group for each day of the range, in date order
+     */
+    int[] getFreeCarCounts(String rentalGroup, DatePeriod range);
+
+    /**
+     * {@link #getFreeCarCounts} for every rental group
+     */
+    Map<String, int[]> getHeatmap(DatePeriod range);
+
+    DatePeriod getWindow();
+}
+
+/**
+ * <p>{@link AvailabilityHeatmap} over a booked-car count per (rental group, day), kept up to date from
+ * {@link RentalEvent}s.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>A booking change adds/subtracts one over the days it covers; a read is a copy out of the group's array, so a
+ * whole heatmap costs (groups x days) with no booking or fleet scan.</li>
+ * <li>Applied synchronously inside the company lock (like {@link FenwickRentalAnalytics}), so counts are never stale.</li>
+ * <li>Archived bookings ({@link BookingArchived}) stay counted: the car was booked on those days.</li>
+ * <li>Counts committed bookings only: holds raise no event until confirmed, so a car on hold counts as free here even
+ * though the company won't book it.</li>
+ * </ul>
+ */
+class OccupancyIndex implements AvailabilityHeatmap, RentalEventListener {
+
+    static OccupancyIndex attachTo(CarRentalCompany api, DatePeriod window) {
+        OccupancyIndex index = new OccupancyIndex(window);
+        api.addEventListener(index);
+        return index;
+    }
+
+    private final DatePeriod window;
+    private final int days;
+
+    // guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, GroupOccupancy> groups = new HashMap<>();
+
+    public OccupancyIndex(DatePeriod window) {
+        long length = ChronoUnit.DAYS.between(window.getStart(), window.getEnd()) + 1;
+        assert length <= 100 * 366 : "window too long to hold per-day counts";
+        this.window = window;
+        this.days = (int) length;
+    }
+
+    @Override
+    public void onEvent(RentalEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event instanceof CarAdded e) {
+                occupancy(e.getCar().getRentalGroup()).cars++;
+            } else if (event instanceof BookingAdded e) {
+                book(e.getBooking(), 1);
+            } else if (event instanceof BookingCancelled e) {
+                book(e.getBooking(), -1);
+            } else if (event instanceof BookingMoved e) {
+                book(e.getOldBooking(), -1);
+                book(e.getNewBooking(), 1);
+            } else if (event instanceof MaintenanceBooked e) {
+                book(e.getBooking(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int getFreeCarCount(String rentalGroup, LocalDate day) {
+        return getFreeCarCounts(rentalGroup, new DatePeriod(day, day))[0];
+    }
+
+    @Override
+    public int[] getFreeCarCounts(String rentalGroup, DatePeriod range) {
+        int from = offsetOf(range.getStart());
+        int to = offsetOf(range.getEnd());
+        lock.readLock().lock();
+        try {
+            GroupOccupancy occupancy = groups.get(rentalGroup);
+            return occupancy == null ? new int[to - from + 1] : occupancy.free(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, int[]> getHeatmap(DatePeriod range) {
+        int from = offsetOf(range.getStart());
+        int to = offsetOf(range.getEnd());
+        lock.readLock().lock();
+        try {
+            Map<String, int[]> heatmap = new TreeMap<>();
+            groups.forEach((group, occupancy) -> heatmap.put(group, occupancy.free(from, to)));
+            return heatmap;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public DatePeriod getWindow() {
+        return window;
+    }
+
+    private void book(Booking booking, int sign) {
+        DatePeriod period = booking.getPeriod();
+        if (period.getEnd().isBefore(window.getStart()) || period.getStart().isAfter(window.getEnd())) {
+            return;
+        }
+        int from = period.getStart().isBefore(window.getStart()) ? 0 : offsetOf(period.getStart());
+        int to = period.getEnd().isAfter(window.getEnd()) ? days - 1 : offsetOf(period.getEnd());
+        int[] booked = occupancy(booking.getCar().getRentalGroup()).booked;
+        for (int day = from; day <= to; day++) {
+            booked[day] += sign;
+        }
+    }
+
+    private int offsetOf(LocalDate day) {
+        if (day.isBefore(window.getStart()) || day.isAfter(window.getEnd())) {
+            throw new IllegalArgumentException(day + " is outside the tracked window");
+        }
+        return (int) ChronoUnit.DAYS.between(window.getStart(), day);
+    }
+
+    private GroupOccupancy occupancy(String rentalGroup) {
+        return groups.computeIfAbsent(rentalGroup, g -> new GroupOccupancy(days));
+    }
+
+    private static class GroupOccupancy {
+        int cars;
+        final int[] booked;
+
+        GroupOccupancy(int days) {
+            booked = new int[days];
+        }
+
+        int[] free(int from, int to) {
+            int[] free = Arrays.copyOfRange(booked, from, to + 1);
+            for (int i = 0; i < free.length; i++) {
+                free[i] = cars - free[i];
+            }
+            return free;
+        }
+    }
+}
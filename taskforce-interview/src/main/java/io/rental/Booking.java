@@ -1,6 +1,7 @@
 package io.rental;
 
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.errorprone.annotations.Immutable;
 
@@ -13,6 +14,8 @@ import io.utils.DatePeriod;
  * <ul>
  * <li>Hashcode/Equality assumes object-equality is implemented on all 3 items (it is)</li>
  * <li>For <b>Story 5</b> there is currently no way to mark a car as "prepared"<li/>
+ * <li>Each instance gets a generated id (unique within the JVM, never 0) so it can be looked-up & cancelled
+ * without a scan. The id is NOT part of equality - two bookings of the same car, renter & period are still equal.</li>
  * </ul>
  * @see Car
  * @see Renter
@@ -21,16 +24,31 @@ import io.utils.DatePeriod;
 @Immutable
 public class Booking {
 
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id;
     protected final Car car;
     protected final Renter renter;
     protected final DatePeriod period;
     private final double agreedPrice;
    
     public Booking(Car car, Renter renter, DatePeriod period, double agreedPrice) {
+        this(NEXT_ID.incrementAndGet(), car, renter, period, agreedPrice);
+    }
+
+    /**
+     * Re-creates a booking under the id it was issued, e.g. when read back from the archive
+     */
+    Booking(long id, Car car, Renter renter, DatePeriod period, double agreedPrice) {
         this.car = car;
         this.renter = renter;
         this.period = period;
         this.agreedPrice = agreedPrice;
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
     }
 
     public Car getCar() {
@@ -113,8 +131,51 @@ class MaintenanceBooking extends Booking {
         super(car, MAINTENANCE_RENTER, period, 0);        
     }
 
+    MaintenanceBooking(long id, Car car, DatePeriod period) {
+        super(id, car, MAINTENANCE_RENTER, period, 0);
+    }
+
     @Override
     public String toString() {
         return "MaintenanceBooking [car=" + car + ", period=" + period + "]";
     }    
 }
+
+/**
+ * <p>Specialisation of {@link Booking Booking} for a tentative hold on a car (e.g. while the customer checks out),
+ * that lapses unless confirmed in time.</p>
+ * <p>Assumptions/Notes:</p>
+ * <ul>
+ * <li>Stored like any other booking, so it takes part in conflict checks and availability.</li>
+ * <li>Its deadline is on the company's hold timer clock.</li>
+ * <li>Never equal to a plain {@link Booking} of the same car, renter & period, so one can replace the other.</li>
+ * </ul>
+ * @see CarRentalCompany#holdCar
+ */
+@Immutable
+class BookingHold extends Booking {
+
+    private final long deadline;
+
+    public BookingHold(Car car, Renter renter, DatePeriod period, double agreedPrice, long deadline) {
+        super(car, renter, period, agreedPrice);
+        this.deadline = deadline;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    boolean hasExpired(long now) {
+        return now - deadline >= 0;
+    }
+
+    Booking toBooking() {
+        return new Booking(car, renter, period, getAgreedPrice());
+    }
+
+    @Override
+    public String toString() {
+        return "BookingHold [car=" + car + ", renter=" + renter + ", period=" + period + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package io.rental;
+
+/**
+ * Produced when a {@link Booking} has been added.
+ */
+public class BookingAdded extends RentalEvent {
+    private final Booking booking;
+
+    public BookingAdded(long sequence, Booking booking) {
+        super(sequence);
+        this.booking = booking;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingAdded [" + getSequence() + ", booking=" + booking + "]";
+    }
+}
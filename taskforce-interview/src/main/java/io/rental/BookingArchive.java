@@ -0,0 +1,332 @@
+package io.rental;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+
+/**
+ * <p>Read-only history of bookings that have been retired from the live {@link BookingRepo} (see
+ * {@link BookingRetention}).</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Bookings keep their {@link Booking#getId() ids}.</li>
+ * <li>Separate from the live bookings - e.g. {@link CarRentalCompany#getBookingsForPeriod} doesn't look here.</li>
+ * </ul>
+ */
+public interface BookingArchive {
+
+    List<Booking> getForPeriod(DatePeriod period);
+    List<Booking> getByRegistration(String reg);
+    List<Booking> getByRenter(String drivingLicenseNumber);
+
+    int size();
+
+    /**
+     * Size of the encoded (compressed) bookings, for comparison with the {@link #size() count}
+     */
+    long getEncodedBytes();
+}
+
+/**
+ * <p>{@link BookingArchive} as a list of immutable, compressed segments.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Bookings arrive in a staging list (cheap enough to do inside the company lock, so a booking is always in
+ * exactly one tier) and {@link #compact()} later encodes everything staged into a new segment, off that lock.</li>
+ * <li>A segment is its bookings sorted by start, each a handful of varints: start as a delta from the previous one,
+ * length in days, car & renter as indexes into archive-wide dictionaries, id as a delta, and the price in cents
+ * (or the raw double, flagged, when it isn't whole cents). Typically ~10 bytes a booking.</li>
+ * <li>Each segment records the dates it spans and the cars & renters in it, so a query only decodes the segments
+ * that can hold a match.</li>
+ * </ul>
+ */
+class CompressedBookingArchive implements BookingArchive {
+
+    private static final int MAINTENANCE = 1;
+    private static final int RAW_PRICE = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock compactLock = new ReentrantLock();
+
+    // guarded by lock
+    private final List<Booking> staged = new ArrayList<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Car> cars = new ArrayList<>();
+    private final Map<Car, Integer> carIndex = new HashMap<>();
+    private final List<Renter> renters = new ArrayList<>();
+    private final Map<Renter, Integer> renterIndex = new HashMap<>();
+    private final Map<String, Integer> registrationIndex = new HashMap<>();
+    private final Map<String, Integer> licenceIndex = new HashMap<>();
+
+    void add(Collection<Booking> bookings) {
+        lock.writeLock().lock();
+        try {
+            staged.addAll(bookings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Encodes everything staged into a new segment
+     * @return the number of bookings encoded
+     */
+    int compact() {
+        compactLock.lock();
+        try {
+            List<Booking> batch;
+            int[] carIds;
+            int[] renterIds;
+            lock.writeLock().lock();
+            try {
+                batch = new ArrayList<>(staged);
+                batch.sort(Comparator.comparing((Booking b) -> b.getPeriod().getStart()));
+                carIds = new int[batch.size()];
+                renterIds = new int[batch.size()];
+                for (int i = 0; i < batch.size(); i++) {
+                    carIds[i] = intern(batch.get(i).getCar());
+                    renterIds[i] = intern(batch.get(i).getRenter());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            Segment segment = Segment.encode(batch, carIds, renterIds);
+
+            lock.writeLock().lock();
+            try {
+                segments.add(segment);
+                // only compact() removes from staged, so the batch is still its head
+                staged.subList(0, batch.size()).clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return batch.size();
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        long start = period.getStart().toEpochDay();
+        long end = period.getEnd().toEpochDay();
+        return find(s -> s.minStart <= end && s.maxEnd >= start,
+            b -> DatePeriodUtil.areOverlapping(period, b.getPeriod()));
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        lock.readLock().lock();
+        try {
+            Integer car = registrationIndex.get(reg);
+            return find(s -> car != null && s.cars.get(car), b -> b.getCar().getRegistrationNumber().equals(reg));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        lock.readLock().lock();
+        try {
+            Integer renter = licenceIndex.get(drivingLicenseNumber);
+            return find(s -> renter != null && s.renters.get(renter),
+                b -> b.getRenter().getDrivingLicenseNumber().equals(drivingLicenseNumber));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return staged.size() + segments.stream().mapToInt(s -> s.count).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getEncodedBytes() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().mapToLong(s -> s.data.length).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Booking> find(Predicate<Segment> mayMatch, Predicate<Booking> matches) {
+        lock.readLock().lock();
+        try {
+            List<Booking> results = new ArrayList<>();
+            for (Segment segment : segments) {
+                if (mayMatch.test(segment)) {
+                    segment.decode(cars, renters, b -> {
+                        if (matches.test(b)) {
+                            results.add(b);
+                        }
+                    });
+                }
+            }
+            for (Booking booking : staged) {
+                if (matches.test(booking)) {
+                    results.add(booking);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int intern(Car car) {
+        return carIndex.computeIfAbsent(car, c -> {
+            cars.add(c);
+            registrationIndex.put(c.getRegistrationNumber(), cars.size() - 1);
+            return cars.size() - 1;
+        });
+    }
+
+    private int intern(Renter renter) {
+        return renterIndex.computeIfAbsent(renter, r -> {
+            renters.add(r);
+            licenceIndex.put(r.getDrivingLicenseNumber(), renters.size() - 1);
+            return renters.size() - 1;
+        });
+    }
+
+    private static final class Segment {
+        final int count;
+        final long minStart; // epoch days
+        final long maxEnd;
+        final BitSet cars;
+        final BitSet renters;
+        final byte[] data;
+
+        private Segment(int count, long minStart, long maxEnd, BitSet cars, BitSet renters, byte[] data) {
+            this.count = count;
+            this.minStart = minStart;
+            this.maxEnd = maxEnd;
+            this.cars = cars;
+            this.renters = renters;
+            this.data = data;
+        }
+
+        /**
+         * @param sorted bookings sorted by start
+         */
+        static Segment encode(List<Booking> sorted, int[] carIds, int[] renterIds) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(sorted.size() * 12);
+            BitSet cars = new BitSet();
+            BitSet renters = new BitSet();
+            long previousStart = 0;
+            long previousId = 0;
+            long maxEnd = Long.MIN_VALUE;
+            for (int i = 0; i < sorted.size(); i++) {
+                Booking booking = sorted.get(i);
+                long start = booking.getPeriod().getStart().toEpochDay();
+                long end = booking.getPeriod().getEnd().toEpochDay();
+                long cents = Math.round(booking.getAgreedPrice() * 100);
+                boolean rawPrice = cents / 100.0 != booking.getAgreedPrice(); // decodes exactly, or not at all
+                out.write((booking instanceof MaintenanceBooking ? MAINTENANCE : 0) | (rawPrice ? RAW_PRICE : 0));
+                writeSigned(out, start - previousStart);
+                writeUnsigned(out, end - start);
+                writeUnsigned(out, carIds[i]);
+                writeUnsigned(out, renterIds[i]);
+                writeSigned(out, booking.getId() - previousId);
+                if (rawPrice) {
+                    long bits = Double.doubleToRawLongBits(booking.getAgreedPrice());
+                    for (int shift = 0; shift < 64; shift += 8) {
+                        out.write((int) (bits >>> shift));
+                    }
+                } else {
+                    writeSigned(out, cents);
+                }
+                cars.set(carIds[i]);
+                renters.set(renterIds[i]);
+                previousStart = start;
+                previousId = booking.getId();
+                maxEnd = Math.max(maxEnd, end);
+            }
+            return new Segment(sorted.size(), sorted.get(0).getPeriod().getStart().toEpochDay(), maxEnd,
+                cars, renters, out.toByteArray());
+        }
+
+        void decode(List<Car> carDictionary, List<Renter> renterDictionary, Consumer<Booking> action) {
+            int[] pos = { 0 };
+            long start = 0;
+            long id = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = data[pos[0]++];
+                start += readSigned(data, pos);
+                long end = start + readUnsigned(data, pos);
+                Car car = carDictionary.get((int) readUnsigned(data, pos));
+                Renter renter = renterDictionary.get((int) readUnsigned(data, pos));
+                id += readSigned(data, pos);
+                double price;
+                if ((flags & RAW_PRICE) != 0) {
+                    long bits = 0;
+                    for (int shift = 0; shift < 64; shift += 8) {
+                        bits |= (data[pos[0]++] & 0xFFL) << shift;
+                    }
+                    price = Double.longBitsToDouble(bits);
+                } else {
+                    price = readSigned(data, pos) / 100.0;
+                }
+                DatePeriod period = new DatePeriod(LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end));
+                action.accept((flags & MAINTENANCE) != 0
+                    ? new MaintenanceBooking(id, car, period)
+                    : new Booking(id, car, renter, period, price));
+            }
+        }
+
+        private static void writeSigned(ByteArrayOutputStream out, long value) {
+            writeUnsigned(out, (value << 1) ^ (value >> 63)); // zig-zag, so small negatives stay short
+        }
+
+        private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readSigned(byte[] data, int[] pos) {
+            long value = readUnsigned(data, pos);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static long readUnsigned(byte[] data, int[] pos) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[pos[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
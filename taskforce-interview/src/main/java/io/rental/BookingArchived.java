@@ -0,0 +1,26 @@
+package io.rental;
+
+/**
+ * <p>Produced when a {@link Booking} that has ended has been moved from the live bookings to the
+ * {@link CarRentalCompany#getArchive() archive} (by a {@link BookingRetention}).</p>
+ *
+ * <p>Not a cancellation: the booking happened. Views of the live bookings drop it, while history (e.g. analytics)
+ * keeps counting it.</p>
+ */
+public class BookingArchived extends RentalEvent {
+    private final Booking booking;
+
+    BookingArchived(long sequence, Booking booking) {
+        super(sequence);
+        this.booking = booking;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingArchived [" + getSequence() + ", booking=" + booking + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package io.rental;
+
+/**
+ * Produced when a {@link Booking} has been removed, either by the customer or as a side-effect of maintenance.
+ */
+public class BookingCancelled extends RentalEvent {
+    private final Booking booking;
+
+    public BookingCancelled(long sequence, Booking booking) {
+        super(sequence);
+        this.booking = booking;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingCancelled [" + getSequence() + ", booking=" + booking + "]";
+    }
+}
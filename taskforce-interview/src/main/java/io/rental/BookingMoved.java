@@ -0,0 +1,28 @@
+package io.rental;
+
+/**
+ * Produced when a {@link Booking} has been replaced by another (e.g. swapped to an alternative car).
+ */
+public class BookingMoved extends RentalEvent {
+    private final Booking oldBooking;
+    private final Booking newBooking;
+
+    public BookingMoved(long sequence, Booking oldBooking, Booking newBooking) {
+        super(sequence);
+        this.oldBooking = oldBooking;
+        this.newBooking = newBooking;
+    }
+
+    public Booking getOldBooking() {
+        return oldBooking;
+    }
+
+    public Booking getNewBooking() {
+        return newBooking;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingMoved [" + getSequence() + ", oldBooking=" + oldBooking + ", newBooking=" + newBooking + "]";
+    }
+}
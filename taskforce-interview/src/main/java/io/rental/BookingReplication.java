@@ -0,0 +1,508 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.utils.DatePeriod;
+
+/**
+ * <p>One ordered mutation in the leader's booking log.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Sequences start at 1 and have no gaps, so a follower can tell when it has missed an entry.</li>
+ * <li>Carries the {@link Booking} objects themselves; a networked transport would serialise these.</li>
+ * </ul>
+ */
+final class ReplicationEntry {
+
+    enum Op { ADD, REMOVE, MOVE, MAINTENANCE_SWAP, REMOVE_ALL }
+
+    private final long sequence;
+    private final long leaderTimeMillis;
+    private final Op op;
+    private final List<Booking> bookings;
+
+    ReplicationEntry(long sequence, Op op, Booking... bookings) {
+        this.sequence = sequence;
+        this.leaderTimeMillis = System.currentTimeMillis();
+        this.op = op;
+        this.bookings = List.of(bookings);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getLeaderTimeMillis() {
+        return leaderTimeMillis;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationEntry [" + sequence + " " + op + " " + bookings + "]";
+    }
+}
+
+/**
+ * Ships the leader's {@link ReplicationEntry}s to followers. Entries must be delivered to each receiver in the order sent.
+ */
+interface ReplicationTransport {
+    void send(ReplicationEntry entry);
+    void onReceive(Consumer<ReplicationEntry> receiver);
+
+    /**
+     * @return the leader's latest sequence as far as this transport knows (e.g. the last one sent, or the last a
+     * heartbeat reported), whether or not it has been delivered yet
+     */
+    long getLatestSequence();
+}
+
+/**
+ * <p>In-process {@link ReplicationTransport}, for tests and single-JVM setups.</p>
+ * <p>Delivers on the supplied executor - which must be single-threaded to keep ordering - or directly on the
+ * sender's thread by default.</p>
+ */
+class LoopbackReplicationTransport implements ReplicationTransport {
+
+    private final Executor executor;
+    private final List<Consumer<ReplicationEntry>> receivers = new CopyOnWriteArrayList<>();
+    private final AtomicLong latestSent = new AtomicLong();
+
+    public LoopbackReplicationTransport() {
+        this(Runnable::run);
+    }
+
+    public LoopbackReplicationTransport(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void send(ReplicationEntry entry) {
+        latestSent.accumulateAndGet(entry.getSequence(), Math::max);
+        executor.execute(() -> receivers.forEach(r -> r.accept(entry)));
+    }
+
+    @Override
+    public void onReceive(Consumer<ReplicationEntry> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public long getLatestSequence() {
+        return latestSent.get();
+    }
+}
+
+/**
+ * <p>
+ * Leader side of booking replication: a {@link BookingRepo} that logs every successful mutation and ships it to
+ * followers
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ol>
+ * <li>All writes - and so all conflict detection - happen here; followers only replay the outcome.</li>
+ * <li>Mutations are applied and logged under one lock, so log order is apply order.</li>
+ * <li>The log is kept in full so a late or lagging follower can catch up with {@link #getEntriesSince}; trimming
+ * it would need follower acknowledgements.</li>
+ * </ol>
+ */
+class LeaderBookingRepo implements BookingRepo {
+
+    private final BookingRepo db;
+    private final ReplicationTransport transport;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ReplicationEntry> log = new ArrayList<>();
+
+    public LeaderBookingRepo(ReplicationTransport transport) {
+        this(new InMemoryBookingRepo(), transport);
+    }
+
+    public LeaderBookingRepo(BookingRepo db, ReplicationTransport transport) {
+        this.db = db;
+        this.transport = transport;
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        return read(() -> db.getAll());
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        return read(() -> db.getByRegistration(reg));
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        return read(() -> db.getForPeriod(period));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
+        return read(() -> db.getForPeriodAndCar(period, car));
+    }
+
+    @Override
+    public List<Booking> getConflicts(Car car, DatePeriod period) {
+        return read(() -> db.getConflicts(car, period));
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        return read(() -> db.getByRenter(drivingLicenseNumber));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return read(() -> db.getForPeriodAndRenter(period, drivingLicenseNumber));
+    }
+
+    @Override
+    public void add(Booking booking) throws Exception {
+        lock.lock();
+        try {
+            db.add(booking);
+            append(ReplicationEntry.Op.ADD, booking);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void maintenanceSwap(MaintenanceBooking booking, Booking customer_old, Booking customer_new) throws Exception {
+        lock.lock();
+        try {
+            db.maintenanceSwap(booking, customer_old, customer_new);
+            append(ReplicationEntry.Op.MAINTENANCE_SWAP, booking, customer_old, customer_new);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Booking booking) throws Exception {
+        lock.lock();
+        try {
+            boolean removed = db.remove(booking);
+            if (removed) {
+                append(ReplicationEntry.Op.REMOVE, booking);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> getById(long id) {
+        lock.lock();
+        try {
+            return db.getById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> removeById(long id) throws Exception {
+        lock.lock();
+        try {
+            Optional<Booking> removed = db.removeById(id);
+            if (removed.isPresent()) {
+                append(ReplicationEntry.Op.REMOVE, removed.get());
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void move(Booking booking_old, Booking booking_new) throws Exception {
+        lock.lock();
+        try {
+            db.move(booking_old, booking_new);
+            append(ReplicationEntry.Op.MOVE, booking_old, booking_new);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() throws Exception {
+        lock.lock();
+        try {
+            db.removeAll();
+            append(ReplicationEntry.Op.REMOVE_ALL);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSequence() {
+        lock.lock();
+        try {
+            return log.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<ReplicationEntry> getEntriesSince(long sequence) {
+        lock.lock();
+        try {
+            return List.copyOf(log.subList((int) Math.min(sequence, log.size()), log.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(ReplicationEntry.Op op, Booking... bookings) {
+        ReplicationEntry entry = new ReplicationEntry(log.size() + 1, op, bookings);
+        log.add(entry);
+        transport.send(entry);
+    }
+
+    private List<Booking> read(Supplier<List<Booking>> query) {
+        lock.lock();
+        try {
+            return List.copyOf(query.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
+
+/**
+ * <p>
+ * Follower side of booking replication: a read-only {@link BookingRepo} kept up to date from the leader's log
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ol>
+ * <li>Reads are served from the local (indexed) repo and may lag the leader - see {@link #getLag} and
+ * {@link #getLagMillis}.</li>
+ * <li>Writes are refused: book on the leader, where conflicts are checked.</li>
+ * <li>Entries arriving ahead of a gap are held back until the gap is filled (e.g. by {@link #catchUp}).</li>
+ * <li>An entry that fails to apply (the leader already committed it, so we've diverged) is never thrown back at the
+ * sender - it would surface in the leader's write. The follower stops applying instead, and reports it through
+ * {@link #getDivergedAt}; it has to be rebuilt from the leader's log.</li>
+ * </ol>
+ */
+class FollowerBookingRepo implements BookingRepo {
+
+    private final BookingRepo db;
+    private final ReplicationTransport transport;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, ReplicationEntry> heldBack = new TreeMap<>();
+    private volatile long appliedSequence = 0;
+    private volatile long latestSeenSequence = 0;
+    private volatile ReplicationEntry divergedAt = null;
+
+    public FollowerBookingRepo(ReplicationTransport transport) {
+        this(new InMemoryBookingRepo(), transport);
+    }
+
+    public FollowerBookingRepo(BookingRepo db, ReplicationTransport transport) {
+        this.db = db;
+        this.transport = transport;
+        transport.onReceive(this::receive);
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        return read(() -> db.getAll());
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        return read(() -> db.getByRegistration(reg));
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        return read(() -> db.getForPeriod(period));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
+        return read(() -> db.getForPeriodAndCar(period, car));
+    }
+
+    @Override
+    public List<Booking> getConflicts(Car car, DatePeriod period) {
+        return read(() -> db.getConflicts(car, period));
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        return read(() -> db.getByRenter(drivingLicenseNumber));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return read(() -> db.getForPeriodAndRenter(period, drivingLicenseNumber));
+    }
+
+    @Override
+    public void add(Booking booking) throws Exception {
+        throw new Exception("Unable to book: bookings are read-only on a follower");
+    }
+
+    @Override
+    public void maintenanceSwap(MaintenanceBooking booking, Booking customer_old, Booking customer_new) throws Exception {
+        throw new Exception("Could not swap customer's booking: bookings are read-only on a follower");
+    }
+
+    @Override
+    public boolean remove(Booking booking) throws Exception {
+        throw new Exception("Unable to remove booking: bookings are read-only on a follower");
+    }
+
+    @Override
+    public Optional<Booking> getById(long id) {
+        lock.readLock().lock();
+        try {
+            return db.getById(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> removeById(long id) throws Exception {
+        throw new Exception("Unable to remove booking: bookings are read-only on a follower");
+    }
+
+    @Override
+    public void move(Booking booking_old, Booking booking_new) throws Exception {
+        throw new Exception("Unable to move booking: bookings are read-only on a follower");
+    }
+
+    @Override
+    public void removeAll() throws Exception {
+        throw new Exception("Unable to remove bookings: bookings are read-only on a follower");
+    }
+
+    /**
+     * Applies entries fetched from the leader (e.g. {@link LeaderBookingRepo#getEntriesSince}), skipping any already applied.
+     */
+    public void catchUp(List<ReplicationEntry> entries) {
+        entries.forEach(this::receive);
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return number of entries this follower knows about (or is told the leader has) but hasn't applied
+     */
+    public long getLag(long leaderSequence) {
+        return Math.max(leaderSequence, latestSeenSequence) - appliedSequence;
+    }
+
+    /**
+     * @return number of entries the leader has (as far as the transport knows) that this follower hasn't applied
+     */
+    public long getLag() {
+        return getLag(transport.getLatestSequence());
+    }
+
+    /**
+     * @return the entry this follower failed to apply, if it has diverged from the leader
+     */
+    public Optional<ReplicationEntry> getDivergedAt() {
+        return Optional.ofNullable(divergedAt);
+    }
+
+    /**
+     * @return age of the oldest entry received but not yet applied (held back behind a gap), or zero
+     */
+    public long getLagMillis() {
+        lock.readLock().lock();
+        try {
+            if (heldBack.isEmpty()) {
+                return 0;
+            }
+            return Math.max(0, System.currentTimeMillis() - heldBack.firstEntry().getValue().getLeaderTimeMillis());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void receive(ReplicationEntry entry) {
+        lock.writeLock().lock();
+        try {
+            latestSeenSequence = Math.max(latestSeenSequence, entry.getSequence());
+            if (entry.getSequence() <= appliedSequence || divergedAt != null) {
+                return;
+            }
+            heldBack.put(entry.getSequence(), entry);
+
+            ReplicationEntry next;
+            while ((next = heldBack.remove(appliedSequence + 1)) != null) {
+                if (!apply(next)) {
+                    divergedAt = next;
+                    heldBack.clear();
+                    return;
+                }
+                appliedSequence = next.getSequence();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the entry couldn't be applied
+     */
+    private boolean apply(ReplicationEntry entry) {
+        List<Booking> b = entry.getBookings();
+        try {
+            switch (entry.getOp()) {
+                case ADD -> db.add(b.get(0));
+                case REMOVE -> db.remove(b.get(0));
+                case MOVE -> db.move(b.get(0), b.get(1));
+                case MAINTENANCE_SWAP -> db.maintenanceSwap((MaintenanceBooking) b.get(0), b.get(1), b.get(2));
+                case REMOVE_ALL -> db.removeAll();
+            }
+            return true;
+        } catch (Exception e) {
+            // The leader already applied this successfully, so failing here means we've diverged
+            return false;
+        }
+    }
+
+    private List<Booking> read(Supplier<List<Booking>> query) {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(query.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package io.rental;
 
-import java.util.LinkedList;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import io.utils.DatePeriod;
 import io.utils.DatePeriodUtil;
+import io.utils.LongObjectHashMap;
+import io.utils.ResultView;
 
 import static java.util.stream.Collectors.toList;
 
@@ -26,12 +35,99 @@ public interface BookingRepo {
     List<Booking> getForPeriod(DatePeriod period);
     List<Booking> getForPeriodAndCar(DatePeriod period, Car car);
     List<Booking> getConflicts(Car car, DatePeriod period);
+    List<Booking> getByRenter(String drivingLicenseNumber);
+    List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber);
 
     void add(Booking booking) throws Exception;
     void maintenanceSwap(MaintenanceBooking booking, Booking customer_old, Booking customer_new) throws Exception;
     boolean remove(Booking booking) throws Exception;
     void move(Booking booking_old, Booking booking_new) throws Exception;
-    void removeAll();
+    void removeAll() throws Exception;
+
+    /**
+     * {@link #getForPeriod} as a lazy view - see {@link ResultView} for how long it's valid
+     */
+    default ResultView<Booking> viewForPeriod(DatePeriod period) {
+        return ResultView.of(getForPeriod(period));
+    }
+
+    /**
+     * {@link #getForPeriodAndCar} as a lazy view, e.g. {@code viewForPeriodAndCar(period, car).isEmpty()} to ask
+     * whether the car is free without listing its bookings
+     */
+    default ResultView<Booking> viewForPeriodAndCar(DatePeriod period, Car car) {
+        return ResultView.of(getForPeriodAndCar(period, car));
+    }
+
+    default boolean existsForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return !getForPeriodAndRenter(period, drivingLicenseNumber).isEmpty();
+    }
+
+    /**
+     * True when every method is safe to call from several threads at once, and a single-car write (e.g. {@link #add})
+     * checks for conflicts & stores as one atomic step - so callers needn't serialise on a lock of their own
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * The stored booking with the given {@link Booking#getId() id}, if there is one
+     */
+    default Optional<Booking> getById(long id) {
+        return getAll().stream().filter(b -> b.getId() == id).findFirst();
+    }
+
+    /**
+     * Removes the stored booking with the given {@link Booking#getId() id}
+     * @return the removed booking, if there was one
+     */
+    default Optional<Booking> removeById(long id) throws Exception {
+        Optional<Booking> booking = getById(id);
+        if (booking.isPresent() && !remove(booking.get())) {
+            return Optional.empty();
+        }
+        return booking;
+    }
+
+    /**
+     * Ids (issued by the given registry) of the cars with a booking overlapping the period. Only looks ids up, so
+     * cars the registry doesn't know are left out rather than added to it.
+     */
+    default BitSet getBookedCarIds(DatePeriod period, IdRegistry registry) {
+        BitSet booked = new BitSet();
+        for (Booking booking : getForPeriod(period)) {
+            int id = registry.idOf(booking.getCar());
+            if (id != IdRegistry.UNKNOWN) {
+                booked.set(id);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * The car's first free period of {@code days} days starting on/after {@code from}
+     * @see DatePeriodUtil#firstGap
+     */
+    default Optional<DatePeriod> getEarliestFree(Car car, LocalDate from, int days) {
+        return DatePeriodUtil.firstGap(sortedPeriods(getForPeriodAndCar(new DatePeriod(from, LocalDate.MAX), car)),
+            from, days);
+    }
+
+    /**
+     * The car's free periods of at least {@code minDays} days within the range, in date order
+     * @see DatePeriodUtil#gaps
+     */
+    default List<DatePeriod> getFreePeriods(Car car, DatePeriod range, int minDays) {
+        return DatePeriodUtil.gaps(sortedPeriods(getForPeriodAndCar(range, car)), range, minDays);
+    }
+
+    private static List<DatePeriod> sortedPeriods(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getPeriod)
+                .sorted(Comparator.comparing(DatePeriod::getStart))
+                .toList();
+    }
 }
 
 /**
@@ -52,44 +148,132 @@ public interface BookingRepo {
  * with transactions, or (b) CQRS if we arent as worried about e.g. rental shop
  * seeing stale car listings</li>*
  * <li>The above implies ALL access to this class must be via the API impl.</li>
+ * <li>Cars & renters are interned to dense ids on the way in, and each car's bookings are indexed by its id, so
+ * per-car lookups and conflict checks only look at that car's bookings. Likewise each renter's bookings, for the
+ * customer's own booking history.</li>
+ * <li>Bookings are keyed by {@link Booking#getId() id} in a primitive-keyed map, so removal is O(1) plus a scan of
+ * that car's (short) list - no walk of every booking. Iteration order of {@link #getAll()} etc. is unspecified.</li>
+ * <li>Each car's list is kept sorted by start (inserted from the end, as bookings mostly arrive in date order), so
+ * the gap searches binary search straight to the first booking in the way rather than sorting the car's history.</li>
+ * <li>Likewise the per-car period queries & conflict checks: a binary search, then a walk that stops at the first
+ * booking starting after the period - done through a lazy {@link ResultView}, so a conflict check stops at the
+ * first conflict and builds no list.</li>
  * </ol>
  */
 class InMemoryBookingRepo implements BookingRepo {
 
-    private final List<Booking> db = new LinkedList<>(); // Since we'll only be scanning-through...
+    private static final MetricsRegistry.Counter NOT_COUNTED = delta -> { };
+
+    private final LongObjectHashMap<Booking> db = new LongObjectHashMap<>();
+    private final IdRegistry registry;
+    private final List<List<Booking>> byCar = new ArrayList<>(); // index is the car id
+    private final List<List<Booking>> byRenter = new ArrayList<>(); // index is the renter id
+
+    private final MetricsRegistry.Counter periodRowsScanned;
+    private final MetricsRegistry.Counter periodRowsReturned;
+    private final MetricsRegistry.Counter conflictChecks;
+    private final MetricsRegistry.Counter conflictRowsScanned;
+
+    public InMemoryBookingRepo() {
+        this(new IdRegistry());
+    }
+
+    public InMemoryBookingRepo(IdRegistry registry) {
+        this(registry, MetricsRegistry.NOOP);
+    }
+
+    public InMemoryBookingRepo(IdRegistry registry, MetricsRegistry metrics) {
+        this.registry = registry;
+        this.periodRowsScanned = metrics.counter("bookings.forPeriod.scanned");
+        this.periodRowsReturned = metrics.counter("bookings.forPeriod.returned");
+        this.conflictChecks = metrics.counter("bookings.conflictChecks");
+        this.conflictRowsScanned = metrics.counter("bookings.conflictChecks.scanned");
+    }
 
     @Override
     public List<Booking> getAll() {
-        return db;
+        return db.values();
     }
 
     @Override
     public List<Booking> getByRegistration(String reg) {
-        return db.stream().filter(b -> b.getCar().getRegistrationNumber().equals(reg)).collect(toList());
+        return new ArrayList<>(bookingsFor(registry.idOfRegistration(reg)));
     }
 
     @Override
     public List<Booking> getForPeriod(DatePeriod period) {
-        return db.stream().filter(b -> DatePeriodUtil.areOverlapping(period, b.getPeriod())).collect(toList());
+        List<Booking> results = new ArrayList<>();
+        db.forEachValue(b -> {
+            if (DatePeriodUtil.areOverlapping(period, b.getPeriod())) {
+                results.add(b);
+            }
+        });
+        periodRowsScanned.add(db.size());
+        periodRowsReturned.add(results.size());
+        return results;
+    }
+
+    @Override
+    public ResultView<Booking> viewForPeriod(DatePeriod period) {
+        ResultView<Booking> all = db::valueIterator;
+        return all.filter(b -> DatePeriodUtil.areOverlapping(period, b.getPeriod()));
     }
 
     @Override
     public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
-        return db.stream().filter(b -> (DatePeriodUtil.areOverlapping(period, b.getPeriod()) &&
-                b.getCar().equals(car))).collect(toList());
+        return viewForPeriodAndCar(period, car).toList();
+    }
+
+    @Override
+    public ResultView<Booking> viewForPeriodAndCar(DatePeriod period, Car car) {
+        return overlapping(bookingsFor(registry.idOf(car)), period, NOT_COUNTED);
     }
 
     @Override
     public List<Booking> getConflicts(Car car, DatePeriod period) {
-        return this.getForPeriodAndCar(period, car);
+        conflictChecks.increment();
+        return overlapping(bookingsFor(registry.idOf(car)), period, conflictRowsScanned).toList();
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        return new ArrayList<>(bookingsForRenter(registry.idOfLicence(drivingLicenseNumber)));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return bookingsForRenter(registry.idOfLicence(drivingLicenseNumber)).stream()
+                .filter(b -> DatePeriodUtil.areOverlapping(period, b.getPeriod()))
+                .collect(toList());
+    }
+
+    @Override
+    public boolean existsForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        for (Booking b : bookingsForRenter(registry.idOfLicence(drivingLicenseNumber))) {
+            if (DatePeriodUtil.areOverlapping(period, b.getPeriod())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<DatePeriod> getEarliestFree(Car car, LocalDate from, int days) {
+        return DatePeriodUtil.firstGap(periodsOf(bookingsFor(registry.idOf(car))), from, days);
+    }
+
+    @Override
+    public List<DatePeriod> getFreePeriods(Car car, DatePeriod range, int minDays) {
+        return DatePeriodUtil.gaps(periodsOf(bookingsFor(registry.idOf(car))), range, minDays);
     }
 
     @Override
     public void add(Booking booking) throws Exception {
-        if (getConflicts(booking.getCar(), booking.getPeriod()).size() > 0) {
+        conflictChecks.increment();
+        if (!overlapping(bookingsFor(registry.idOf(booking.getCar())), booking.getPeriod(), conflictRowsScanned).isEmpty()) {
             throw new Exception("Unable to book: conflicting bookings");
         }
-        db.add(booking);
+        index(booking);
     }
 
     @Override
@@ -101,16 +285,32 @@ class InMemoryBookingRepo implements BookingRepo {
             this.add(maintenance);
         } catch (Exception e) {
             // attempt some basic tx rollback here
-            db.remove(maintenance);
-            db.remove(customer_new);
-            db.remove(customer_old);
+            unindex(maintenance);
+            unindex(customer_new);
+            unindex(customer_old);
             throw new Exception("Could not swap customer's booking", e);
         }
     }
 
     @Override
     public boolean remove(Booking booking) throws Exception {
-        return db.remove(booking);
+        return unindex(booking);
+    }
+
+    @Override
+    public Optional<Booking> getById(long id) {
+        return Optional.ofNullable(db.get(id));
+    }
+
+    @Override
+    public Optional<Booking> removeById(long id) {
+        Booking booking = db.remove(id);
+        if (booking == null) {
+            return Optional.empty();
+        }
+        bookingsFor(registry.idOf(booking.getCar())).remove(booking);
+        bookingsForRenter(registry.idOf(booking.getRenter())).remove(booking);
+        return Optional.of(booking);
     }
 
     @Override
@@ -120,9 +320,9 @@ class InMemoryBookingRepo implements BookingRepo {
             add(booking_new);
         } catch (Exception x) {
             // try to clean-up //
-            db.remove(booking_new);
-            db.remove(booking_old);
-            db.add(booking_old);
+            unindex(booking_new);
+            unindex(booking_old);
+            index(booking_old);
             throw new Exception("Unable to move booking", x);
         }
     }
@@ -130,6 +330,131 @@ class InMemoryBookingRepo implements BookingRepo {
     @Override
     public void removeAll() {
         db.clear();
+        byCar.clear();
+        byRenter.clear();
+    }
+
+    @Override
+    public BitSet getBookedCarIds(DatePeriod period, IdRegistry registry) {
+        if (registry != this.registry) {
+            return BookingRepo.super.getBookedCarIds(period, registry);
+        }
+        BitSet booked = new BitSet(byCar.size());
+        periodRowsScanned.add(db.size());
+        for (int id = 0; id < byCar.size(); id++) {
+            for (Booking b : byCar.get(id)) {
+                if (DatePeriodUtil.areOverlapping(period, b.getPeriod())) {
+                    booked.set(id);
+                    break;
+                }
+            }
+        }
+        return booked;
+    }
+
+    private List<Booking> bookingsFor(int carId) {
+        return slot(byCar, carId);
+    }
+
+    private List<Booking> bookingsForRenter(int renterId) {
+        return slot(byRenter, renterId);
+    }
+
+    private static List<Booking> slot(List<List<Booking>> index, int id) {
+        if (id == IdRegistry.UNKNOWN || id >= index.size()) {
+            return List.of();
+        }
+        return index.get(id);
+    }
+
+    private static void add(List<List<Booking>> index, int id, Booking booking) {
+        while (index.size() <= id) {
+            index.add(new ArrayList<>());
+        }
+        index.get(id).add(booking);
+    }
+
+    /**
+     * Keeps the car's list sorted by start
+     */
+    private void addToTimeline(int carId, Booking booking) {
+        add(byCar, carId, booking);
+        List<Booking> timeline = byCar.get(carId);
+        // usually appended in date order already, so walk back from the end
+        int i = timeline.size() - 1;
+        while (i > 0 && timeline.get(i - 1).getPeriod().getStart().isAfter(booking.getPeriod().getStart())) {
+            timeline.set(i, timeline.get(i - 1));
+            i--;
+        }
+        timeline.set(i, booking);
+    }
+
+    /**
+     * The bookings on the (sorted, non-overlapping) timeline that overlap the period, found as they're iterated
+     * @param visited counts the timeline entries the iteration looks at - those returned, plus the one past the
+     * period that ends it (the binary search to the first isn't counted)
+     */
+    private static ResultView<Booking> overlapping(List<Booking> timeline, DatePeriod period,
+            MetricsRegistry.Counter visited) {
+        return () -> new Iterator<>() {
+            private int next = DatePeriodUtil.firstEndingOnOrAfter(periodsOf(timeline), period.getStart());
+            private int counted = -1; // the last entry counted, as hasNext() may look at one repeatedly
+
+            @Override
+            public boolean hasNext() {
+                if (next >= timeline.size()) {
+                    return false;
+                }
+                if (counted != next) {
+                    counted = next;
+                    visited.increment();
+                }
+                return !timeline.get(next).getPeriod().getStart().isAfter(period.getEnd());
+            }
+
+            @Override
+            public Booking next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return timeline.get(next++);
+            }
+        };
+    }
+
+    /**
+     * Read-only view of the bookings' periods, no copy
+     */
+    private static List<DatePeriod> periodsOf(List<Booking> bookings) {
+        return new AbstractList<>() {
+            @Override
+            public DatePeriod get(int index) {
+                return bookings.get(index).getPeriod();
+            }
+
+            @Override
+            public int size() {
+                return bookings.size();
+            }
+        };
+    }
+
+    private void index(Booking booking) {
+        addToTimeline(registry.intern(booking.getCar()), booking);
+        add(byRenter, registry.intern(booking.getRenter()), booking);
+        db.put(booking.getId(), booking);
+    }
+
+    private boolean unindex(Booking booking) {
+        // the caller's instance may be an equal copy of the stored one, so go via the car's list to find its id
+        List<Booking> carBookings = bookingsFor(registry.idOf(booking.getCar()));
+        int i = carBookings.indexOf(booking);
+        if (i < 0) {
+            return false;
+        }
+        db.remove(carBookings.remove(i).getId());
+        bookingsForRenter(registry.idOf(booking.getRenter())).remove(booking);
+        return true;
     }
 
 }
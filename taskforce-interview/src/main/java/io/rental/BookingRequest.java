@@ -0,0 +1,65 @@
+package io.rental;
+
+import io.utils.DatePeriod;
+
+/**
+ * <p>One booking in a bulk request to {@link CarRentalCompany#bookCars}.</p>
+ *
+ * <p>Assumptions/Notes:</p>
+ * <ul>
+ * <li>Same inputs as {@link CarRentalCompany#bookCar}; the {@link Booking} (and its id) only exists once committed.</li>
+ * </ul>
+ */
+public class BookingRequest {
+
+    /**
+     * How {@link CarRentalCompany#bookCars} treats a batch where some requests can't be booked
+     */
+    public enum Mode {
+        /** Nothing is booked unless everything can be */
+        ALL_OR_NOTHING,
+        /** Everything that can be booked is */
+        BEST_EFFORT
+    }
+
+    public static BookingRequest of(Car car, Renter renter, DatePeriod period, double agreedPrice) {
+        return new BookingRequest(car, renter, period, agreedPrice);
+    }
+
+    private final Car car;
+    private final Renter renter;
+    private final DatePeriod period;
+    private final double agreedPrice;
+
+    public BookingRequest(Car car, Renter renter, DatePeriod period, double agreedPrice) {
+        this.car = car;
+        this.renter = renter;
+        this.period = period;
+        this.agreedPrice = agreedPrice;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public Renter getRenter() {
+        return renter;
+    }
+
+    public DatePeriod getPeriod() {
+        return period;
+    }
+
+    public double getAgreedPrice() {
+        return agreedPrice;
+    }
+
+    Booking toBooking() {
+        return new Booking(car, renter, period, agreedPrice);
+    }
+
+    @Override
+    public String toString() {
+        return "BookingRequest [car=" + car + ", renter=" + renter + ", period=" + period + "]";
+    }
+}
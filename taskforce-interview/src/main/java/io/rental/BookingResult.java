@@ -0,0 +1,53 @@
+package io.rental;
+
+import java.util.Optional;
+
+/**
+ * Outcome of one {@link BookingRequest} in {@link CarRentalCompany#bookCars}.
+ */
+public class BookingResult {
+
+    public enum Status {
+        BOOKED,
+        /** Overlaps a booking the car already had */
+        CONFLICTS_WITH_EXISTING,
+        /** Overlaps an earlier request for the same car in the batch */
+        CONFLICTS_WITH_BATCH,
+        /** Could have been booked, but another request in an {@link BookingRequest.Mode#ALL_OR_NOTHING} batch failed */
+        NOT_BOOKED
+    }
+
+    private final BookingRequest request;
+    private final Status status;
+    private final Booking booking;
+
+    BookingResult(BookingRequest request, Status status, Booking booking) {
+        this.request = request;
+        this.status = status;
+        this.booking = booking;
+    }
+
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+
+    /**
+     * The committed booking, when {@link #isBooked()}
+     */
+    public Optional<Booking> getBooking() {
+        return Optional.ofNullable(booking);
+    }
+
+    @Override
+    public String toString() {
+        return "BookingResult [" + status + " " + request + "]";
+    }
+}
@@ -0,0 +1,81 @@
+package io.rental;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Retention policy for the live bookings: those that ended more than {@code keep} ago are moved to the company's
+ * {@link BookingArchive}, so the booking repo (and every overlap scan of it) only holds recent, current & future
+ * bookings.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Incremental: each run moves bookings in batches, taking the company lock once per batch, so bookings are
+ * never held up for more than one batch. The compression happens after, off the company lock.</li>
+ * <li>Runs on one daemon thread, every {@code interval} (or call {@link #runOnce()} directly).</li>
+ * <li>Holds are never archived; they lapse or become bookings first. (On a {@link MonthPartitionedBookingRepo}, whose
+ * old months are dropped whole, one still there is forgotten with its month.)</li>
+ * <li>Each archived booking is reported as a {@link BookingArchived} event, so listeners following the live bookings
+ * (read models, snapshots) drop it as well.</li>
+ * </ul>
+ */
+class BookingRetention implements AutoCloseable {
+
+    static final int DEFAULT_BATCH = 1_000;
+
+    static BookingRetention start(CarRentalCompanyImpl company, Period keep, Duration interval) {
+        BookingRetention retention = new BookingRetention(company, keep, Clock.systemDefaultZone(), DEFAULT_BATCH);
+        retention.executor.scheduleWithFixedDelay(retention::runQuietly,
+            interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return retention;
+    }
+
+    private final CarRentalCompanyImpl company;
+    private final Period keep;
+    private final Clock clock;
+    private final int batch;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().daemon().name("booking-retention").factory());
+
+    BookingRetention(CarRentalCompanyImpl company, Period keep, Clock clock, int batch) {
+        assert batch > 0;
+        this.company = company;
+        this.keep = keep;
+        this.clock = clock;
+        this.batch = batch;
+    }
+
+    /**
+     * Archives everything past the retention period, batch by batch, then compresses it
+     * @return the number of bookings archived
+     */
+    int runOnce() throws Exception {
+        LocalDate cutoff = LocalDate.now(clock).minus(keep);
+        int archived = 0;
+        int moved;
+        do {
+            moved = company.archiveEndedBefore(cutoff, batch);
+            archived += moved;
+        } while (moved >= batch); // over it when whole months were dropped
+        company.getArchive().compact();
+        return archived;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void runQuietly() {
+        try {
+            runOnce();
+        } catch (Exception e) {
+            // nothing is lost - whatever wasn't moved this time is picked up next time
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.rental;
+
+/**
+ * Produced when a {@link Car} joins the fleet.
+ */
+public class CarAdded extends RentalEvent {
+    private final Car car;
+
+    public CarAdded(long sequence, Car car) {
+        super(sequence);
+        this.car = car;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    @Override
+    public String toString() {
+        return "CarAdded [" + getSequence() + ", car=" + car + "]";
+    }
+}
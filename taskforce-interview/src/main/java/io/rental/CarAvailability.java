@@ -0,0 +1,30 @@
+package io.rental;
+
+import io.utils.DatePeriod;
+
+/**
+ * A car and the earliest period it is free for, from {@link CarRentalCompany#getEarliestAvailableCars}.
+ */
+public class CarAvailability {
+
+    private final Car car;
+    private final DatePeriod period;
+
+    CarAvailability(Car car, DatePeriod period) {
+        this.car = car;
+        this.period = period;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public DatePeriod getPeriod() {
+        return period;
+    }
+
+    @Override
+    public String toString() {
+        return "CarAvailability [car=" + car + ", period=" + period.getStart() + ".." + period.getEnd() + "]";
+    }
+}
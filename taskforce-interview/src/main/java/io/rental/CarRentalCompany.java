@@ -1,36 +1,93 @@
 package io.rental;
 
-import static java.util.stream.Collectors.toList;
-
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+import java.util.function.ObjIntConsumer;
 
 import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.HashedTimerWheel;
+import io.utils.LongObjectHashMap;
+import io.utils.OverlapKernel;
 import static io.rental.Criteria.ALL;
 
 /**
  * <p>API for Rental Shop</p>
  * 
  */
-public interface CarRentalCompany {
+public interface CarRentalCompany extends AutoCloseable {
 
     // Shop View
     List<Car> getMatchingCars(Criteria criteria);
     List<Car> getAvailableCars(DatePeriod period);
     List<Car> getAvailableCars(Criteria criteria, DatePeriod period);
+    List<Car> getCheapestAvailableCars(Criteria criteria, DatePeriod period, int limit);
+    List<List<Car>> getAvailableCars(Criteria criteria, List<DatePeriod> periods);
+    List<Integer> countAvailableCars(Criteria criteria, List<DatePeriod> periods);
+    boolean hasAvailableCar(Criteria criteria, DatePeriod period);
+    List<Car> getFirstAvailableCars(Criteria criteria, DatePeriod period, int limit);
     Map<String, Double> getGroupPricing();
 
+    // Gap search ("when is a car free for N days?")
+    Optional<DatePeriod> getEarliestAvailablePeriod(Car car, LocalDate from, int days);
+    List<CarAvailability> getEarliestAvailableCars(Criteria criteria, LocalDate from, int days, int limit);
+    List<DatePeriod> getFreePeriods(Car car, DatePeriod range, int minDays);
+
     // Customer View
     List<CarView> getMatchingCarsCustomerView(Criteria criteria);    
     List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period);
+    List<CarView> getCheapestAvailableCarsCustomerView(Criteria criteria, DatePeriod period, int limit);
+    List<AlternativeCarView> getAlternativeCarsCustomerView(Criteria criteria, DatePeriod period, int radiusDays, int limit);
 
     void addCar(Car car);
     Booking bookCar(Car car, Renter renter, DatePeriod period, double agreedPrice) throws Exception;
+    List<BookingResult> bookCars(List<BookingRequest> requests, BookingRequest.Mode mode) throws Exception;
     boolean cancelBooking(Booking booking) throws Exception;
+    boolean cancelBooking(long bookingId) throws Exception;
+    Optional<Booking> getBooking(long bookingId);
+
+    // Holds (tentative bookings, e.g. during checkout, that lapse after the ttl unless confirmed) - not returned by
+    // the booking reads, so those stay committed bookings only
+    Booking holdCar(Car car, Renter renter, DatePeriod period, double agreedPrice, Duration ttl) throws Exception;
+    Booking confirmHold(long holdId) throws Exception;
+    boolean releaseHold(long holdId) throws Exception;
 
     List<MaintenanceResult> bookMaintenance(String reason, Car car, DatePeriod period) throws Exception;
     List<Booking> getBookingsForPeriod(DatePeriod period);
+
+    // Renter's own bookings (by driving licence number)
+    List<Booking> getBookingsForRenter(String drivingLicenseNumber);
+    List<Booking> getBookingsForRenter(String drivingLicenseNumber, DatePeriod period);
+    boolean hasBookingDuring(String drivingLicenseNumber, DatePeriod period);
+
+    // History: bookings retired from the above by a BookingRetention
+    BookingArchive getArchive();
+
+    // Change events (the listener is first sent the current fleet & bookings, then every change after that)
+    void addEventListener(RentalEventListener listener);
+    void removeEventListener(RentalEventListener listener);
+    Flow.Publisher<RentalEvent> getChangeFeed();
+
+    // Shut down: completes the change feed, so its subscribers get onComplete
+    @Override
+    void close();
 }
 
 /**
@@ -39,7 +96,22 @@ public interface CarRentalCompany {
  * <p>Assumptions / Shortcuts:</p>
  * <ul>
  * <li>Exposing the repos via the protected class interface (would prefer dependency injection).</li>
- * <li>Synchronising on an internal (reentrant) lock obj here, giving a simplistic transaction across repos.</li>
+ * <li>Synchronising on an internal (reentrant) lock obj here, giving a simplistic transaction across repos.
+ * A {@link ReentrantLock} rather than a monitor, so that callers on virtual threads don't pin their carrier while waiting.</li>
+ * <li>When both repos are {@link BookingRepo#isThreadSafe() thread-safe} (e.g. the sharded pair), that lock becomes
+ * the write side of a read/write lock. Queries and single-car booking writes ({@link #bookCar}, {@link #cancelBooking})
+ * take only the read side - plus, for the writes, a lock striped by car - so they run concurrently across cars (the
+ * repo makes each conflict check & insert atomic). {@link #bookMaintenance} takes the read side and the stripes of
+ * the car's whole rental group (where it moves customers to), unless it has a hold to bump. Fleet changes, batches,
+ * holds and listener registration still take it exclusively. Otherwise both sides are the one lock, as before.</li>
+ * <li>Every successful mutation emits a {@link RentalEvent} to the registered listeners, before its locks are
+ * released. Events are numbered and delivered one at a time, so listeners see them in sequence order, and each car's
+ * changes in the order they were applied.</li>
+ * <li>Holds are the exception: they block the car like a booking, but only their confirmation is an event (a
+ * {@link BookingAdded}), so listeners only ever see committed bookings - and count a held car as free. The booking
+ * reads ({@link #getBooking}, {@link #getBookingsForPeriod}, ...) leave them out too.</li>
+ * <li>Expired holds are removed in batches, one lock acquisition per tick of the hold timer; {@link #close()} stops
+ * its thread.</li>
  * </ul>
  * 
   * @see BookingRepo BookingRepo for assumptions on that service
@@ -47,149 +119,1093 @@ public interface CarRentalCompany {
  */
 class CarRentalCompanyImpl implements CarRentalCompany {
 
-    private final Object lock = new Object();
+    static final int CAR_LOCK_STRIPES = 64;
+
+    private final Lock lock; // exclusive
+    private final Lock sharedLock; // queries & single-car writes - the same lock unless the repos are thread-safe
+    private final Lock[] carLocks = new Lock[CAR_LOCK_STRIPES];
+    private final ReentrantLock emitLock = new ReentrantLock(); // numbering & delivering an event is one step
+    private final List<RentalEventListener> listeners = new CopyOnWriteArrayList<>();
+    private long eventSequence = 0; // guarded by emitLock
+    private RentalChangeFeed changeFeed;
+    private boolean closed = false; // guarded by lock
+    private volatile SlowQueryLog slowQueryLog;
+
+    static final Duration HOLD_TICK = Duration.ofSeconds(1);
+    static final int HOLD_WHEEL_BUCKETS = 512;
+    private HashedTimerWheel<BookingHold> holdTimer; // created on the first hold, guarded by lock
+    private final LongObjectHashMap<HashedTimerWheel.Timeout<BookingHold>> holdTimeouts = new LongObjectHashMap<>(); // by hold id, guarded by lock
+    private final CompressedBookingArchive archive = new CompressedBookingArchive();
     
-    protected BookingRepo bookingRepo = new InMemoryBookingRepo(); 
-    protected CarRepo carRepo = new InMemoryCarRepo();
+    protected BookingRepo bookingRepo; 
+    protected CarRepo carRepo;
+    protected final IdRegistry registry;
+
+    public CarRentalCompanyImpl() {
+        this(MetricsRegistry.NOOP);
+    }
+
+    /**
+     * Reports lock wait & hold times, and the repos' scan, conflict-check and pricing metrics, to the registry.
+     * Wrap in {@link MeteredCarRentalCompany} for per-method latencies too.
+     */
+    public CarRentalCompanyImpl(MetricsRegistry metrics) {
+        this(new IdRegistry(), metrics);
+    }
+
+    private CarRentalCompanyImpl(IdRegistry registry, MetricsRegistry metrics) {
+        this(registry,
+            new InMemoryBookingRepo(registry, metrics),
+            new InMemoryCarRepo(registry, InMemoryCarRepo.DEFAULT_PARALLEL_THRESHOLD, metrics),
+            metrics);
+    }
+
+    /**
+     * e.g. a {@link ShardedBookingRepo} / {@link ShardedCarRepo} pair, partitioned the same way
+     */
+    public CarRentalCompanyImpl(BookingRepo bookingRepo, CarRepo carRepo) {
+        this(new IdRegistry(), bookingRepo, carRepo, MetricsRegistry.NOOP);
+    }
+
+    private CarRentalCompanyImpl(IdRegistry registry, BookingRepo bookingRepo, CarRepo carRepo, MetricsRegistry metrics) {
+        this.registry = registry;
+        this.bookingRepo = bookingRepo;
+        this.carRepo = carRepo;
+        // cars are interned as they join the fleet (here & addCar), so queries only ever look ids up
+        for (Car car : carRepo.getAll()) {
+            registry.intern(car);
+        }
+        if (bookingRepo.isThreadSafe() && carRepo.isThreadSafe()) {
+            ReentrantReadWriteLock readWrite = new ReentrantReadWriteLock();
+            this.lock = readWrite.writeLock();
+            this.sharedLock = readWrite.readLock();
+        } else {
+            // a plain lock when nothing is listening, so the default pays nothing for the timings
+            this.lock = metrics == MetricsRegistry.NOOP ? new ReentrantLock() : new MeteredLock(metrics, "company.lock");
+            this.sharedLock = this.lock;
+        }
+        for (int i = 0; i < carLocks.length; i++) {
+            carLocks[i] = new ReentrantLock();
+        }
+    }
     
     @Override
     public Map<String, Double> getGroupPricing() {
-        synchronized(lock){
+        sharedLock.lock();
+        try {
             return carRepo.getBlendedPrices();
+        } finally {
+            sharedLock.unlock();
         }
 
     }
 
     @Override
     public void addCar(Car car) {
-        synchronized(lock){
+        lock.lock();
+        try {
             carRepo.add(car);
+            registry.intern(car);
+            emit(seq -> new CarAdded(seq, car));
+        } finally {
+            lock.unlock();
         }
     }
     
     @Override
     public List<Car> getMatchingCars(Criteria criteria) {        
-        synchronized(lock){
+        sharedLock.lock();
+        try {
             return carRepo.getByCriteria(criteria);
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public List<Car> getAvailableCars(DatePeriod period) {
-        synchronized(lock){
+        sharedLock.lock();
+        try {
             return getAvailableCars(ALL, period);
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public List<Car> getAvailableCars(Criteria criteria, DatePeriod period) {        
-        synchronized(lock){
+        sharedLock.lock();
+        try {
+            return searchAvailable("getAvailableCars", criteria, period, carRepo::getByCriteria);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * One criteria scan of the fleet and one pass over the bookings in the span of all the periods, then each
+     * (period, car) is a binary search of that car's timeline. Results line up with the periods.
+     *
+     * @see DatePeriodUtil#periodsWithin for e.g. each day of a range
+     */
+    @Override
+    public List<List<Car>> getAvailableCars(Criteria criteria, List<DatePeriod> periods) {
+        sharedLock.lock();
+        try {
+            List<List<Car>> results = new ArrayList<>(periods.size());
+            for (int i = 0; i < periods.size(); i++) {
+                results.add(new ArrayList<>());
+            }
+            forEachAvailable("getAvailableCars", criteria, periods, (car, i) -> results.get(i).add(car));
+            return results;
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> countAvailableCars(Criteria criteria, List<DatePeriod> periods) {
+        sharedLock.lock();
+        try {
+            int[] counts = new int[periods.size()];
+            forEachAvailable("countAvailableCars", criteria, periods, (car, i) -> counts[i]++);
+            return Arrays.stream(counts).boxed().toList();
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * Stops at the first free car - see {@link #firstAvailableCars}
+     */
+    @Override
+    public boolean hasAvailableCar(Criteria criteria, DatePeriod period) {
+        sharedLock.lock();
+        try {
+            return !firstAvailableCars("hasAvailableCar", criteria, period, 1).isEmpty();
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * The first free cars in fleet order (like {@link #getAvailableCars(Criteria, DatePeriod)}, cut short) - see
+     * {@link #firstAvailableCars}
+     */
+    @Override
+    public List<Car> getFirstAvailableCars(Criteria criteria, DatePeriod period, int limit) {
+        sharedLock.lock();
+        try {
+            return firstAvailableCars("getFirstAvailableCars", criteria, period, limit);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * Free cars matching the criteria, found as they're iterated: each matching car in turn is checked against its own
+     * bookings. That's dearer per car than the booked-car scan of {@link #searchAvailable}, but costs nothing for the
+     * cars after the ones wanted - the better deal when only a few are. Traced with the booked-car checks as part
+     * of the fleet scan, as they're interleaved.
+     */
+    private List<Car> firstAvailableCars(String operation, Criteria criteria, DatePeriod period, int limit) {
+        CriteriaSearchEvent event = new CriteriaSearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        LongAdder scanned = new LongAdder();
+        int[] booked = { 0 };
+        List<Car> results = carRepo.viewByCriteria(criteria, scanCounter(event, scanned))
+            .filter(car -> {
+                if (bookingRepo.viewForPeriodAndCar(period, car).isEmpty()) {
+                    return true;
+                }
+                booked[0]++;
+                return false;
+            })
+            .first(limit);
+        long end = System.nanoTime();
+        event.end();
+        trace(event, operation, criteria, period, scanned, booked[0], results.size(), start, start, end);
+        return results;
+    }
+
+    /**
+     * Calls the action with (period index, car) for each car matching the criteria that is free for that period
+     */
+    private void forEachAvailable(String operation, Criteria criteria, List<DatePeriod> periods,
+            ObjIntConsumer<Car> action) {
+        if (periods.isEmpty()) {
+            return;
+        }
+        CriteriaSearchEvent event = new CriteriaSearchEvent();
+        event.begin();
+        long begun = System.nanoTime();
+        DatePeriod span = DatePeriodUtil.span(periods);
+        CarTimelines timelines = new CarTimelines(bookingRepo.getForPeriod(span), registry);
+        long bookedAt = System.nanoTime();
+        LongAdder scanned = new LongAdder();
+        List<Car> candidates = carRepo.getByCriteria(criteria, scanCounter(event, scanned));
+        int[] ids = new int[candidates.size()];
+        for (int c = 0; c < ids.length; c++) {
+            ids[c] = registry.idOf(candidates.get(c));
+        }
+
+        int results = 0;
+        for (int i = 0; i < periods.size(); i++) {
+            int start = OverlapKernel.toDay(periods.get(i).getStart());
+            int end = OverlapKernel.toDay(periods.get(i).getEnd());
+            for (int c = 0; c < ids.length; c++) {
+                if (timelines.isFree(ids[c], start, end)) {
+                    action.accept(candidates.get(c), i);
+                    results++;
+                }
+            }
+        }
+        long finished = System.nanoTime();
+        event.end();
+        trace(event, operation, criteria, span, scanned, timelines.getBookedCars(), results, begun, bookedAt, finished);
+    }
+
+    @Override
+    public Optional<DatePeriod> getEarliestAvailablePeriod(Car car, LocalDate from, int days) {
+        sharedLock.lock();
+        try {
+            return bookingRepo.getEarliestFree(car, from, days);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * One criteria scan of the fleet, then a search of each matching car's sorted booking timeline (a binary search
+     * to the first booking in the way, then the gaps too short to fit). Soonest first, cheapest first on ties.
+     */
+    @Override
+    public List<CarAvailability> getEarliestAvailableCars(Criteria criteria, LocalDate from, int days, int limit) {
+        sharedLock.lock();
+        try {
+            List<CarAvailability> results = new ArrayList<>();
+            for (Car car : carRepo.getByCriteria(criteria)) {
+                bookingRepo.getEarliestFree(car, from, days)
+                    .ifPresent(period -> results.add(new CarAvailability(car, period)));
+            }
+            return results.stream()
+                .sorted(Comparator.comparing((CarAvailability a) -> a.getPeriod().getStart())
+                    .thenComparingDouble(a -> a.getCar().getCostPerDay())
+                    .thenComparing(a -> a.getCar().getRegistrationNumber()))
+                .limit(limit)
+                .toList();
+        } finally {
+            sharedLock.unlock();
+        }
+    }
 
-            List<Car> carsWithBookings = bookingRepo.getForPeriod(period).stream()
-                .map(b -> b.getCar())            
-                .distinct()
-                .collect(toList());
+    @Override
+    public List<DatePeriod> getFreePeriods(Car car, DatePeriod range, int minDays) {
+        sharedLock.lock();
+        try {
+            return bookingRepo.getFreePeriods(car, range, minDays);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
 
-            List<Car> matchingCars = carRepo.getByCriteria(
-                AndCriteria.of(
-                    criteria, 
-                    ExclusionListCriteria.of(carsWithBookings))
-                    );        
-                    
-            return matchingCars;
+    @Override
+    public List<Car> getCheapestAvailableCars(Criteria criteria, DatePeriod period, int limit) {
+        sharedLock.lock();
+        try {
+            return searchAvailable("getCheapestAvailableCars", criteria, period,
+                (available, scanned) -> carRepo.getCheapestByCriteria(available, limit, scanned));
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public Booking bookCar(Car car, Renter renter, DatePeriod period, double agreedPrice) throws Exception{
-        synchronized(lock){
-            Booking booking = new Booking(car, renter, period, agreedPrice);
-            bookingRepo.add(booking);
-            return booking;
+        sharedLock.lock();
+        try {
+            Lock carLock = carLock(car);
+            carLock.lock();
+            try {
+                Booking booking = new Booking(car, renter, period, agreedPrice);
+                bookingRepo.add(booking);
+                emit(seq -> new BookingAdded(seq, booking));
+                return booking;
+            } finally {
+                carLock.unlock();
+            }
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public List<MaintenanceResult> bookMaintenance(String reason, Car car, DatePeriod period/*, boolean canCancel*/) throws Exception{
-        synchronized(lock){
-            MaintenanceBooking booking = new MaintenanceBooking(car, period);
+        sharedLock.lock();
+        try {
+            // the car and every car its customers could be moved to, so none of them is booked meanwhile
+            Lock[] groupLocks = carLocks(carRepo.getByCriteria(RentalGroupCriteria.of(car.getRentalGroup())));
+            lockAll(groupLocks);
+            try {
+                List<Booking> conflicts = bookingRepo.getConflicts(car, period);
+                if (sharedLock == lock || conflicts.stream().noneMatch(BookingHold.class::isInstance)) {
+                    return bookMaintenance(reason, car, period, conflicts);
+                }
+            } finally {
+                unlockAll(groupLocks);
+            }
+        } finally {
+            sharedLock.unlock();
+        }
+        // a hold to bump, whose timer bookkeeping is only touched under the exclusive lock
+        lock.lock();
+        try {
+            return bookMaintenance(reason, car, period, bookingRepo.getConflicts(car, period));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Under the exclusive lock, or the read side and the stripes of the car's rental group when the conflicts hold no
+     * hold
+     */
+    private List<MaintenanceResult> bookMaintenance(String reason, Car car, DatePeriod period, List<Booking> conflicts)
+            throws Exception {
+        MaintenanceBooking booking = new MaintenanceBooking(car, period);
+        
+        // This is an 'optimistic' activity, in that it could ultimately
+        // fail because another thread adds to the bookings DB. Failed attempts
+        // should leave the DB as before.
+
+        List<MaintenanceResult> results = new ArrayList<>();
+        
+        // Resolve conflicts - I've gone with "do the best we can" and leaving
+        // the door open to inform the user if a cancellation was unavoidable.
+
+        for(Booking conflict: conflicts){            
             
-            // This is an 'optimistic' activity, in that it could ultimately
-            // fail because another thread adds to the bookings DB. Failed attempts
-            // should leave the DB as before.
+            if (conflict instanceof BookingHold) {
+                // not yet a booking, so nothing to move - the customer finds out when they try to confirm
+                bookingRepo.remove(conflict);
+                forgetHold(conflict.getId());
+                continue;
+            }
+
+            Criteria altCriteria = AndCriteria.of(
+                RentalGroupCriteria.of(booking.getCar().getRentalGroup()),
+                ExclusionListCriteria.of(car)
+            );
 
-            List<Booking> conflicts = bookingRepo.getConflicts(car, period);
-            List<MaintenanceResult> results = new ArrayList<>();
+            List<Car> available = this.getAvailableCars(altCriteria, conflict.getPeriod());
             
-            // Resolve conflicts - I've gone with "do the best we can" and leaving
-            // the door open to inform the user if a cancellation was unavoidable.
-
-            for(Booking conflict: conflicts){            
-                
-                Criteria altCriteria = AndCriteria.of(
-                    RentalGroupCriteria.of(booking.getCar().getRentalGroup()),
-                    ExclusionListCriteria.of(car)
-                );
-
-                List<Car> available = this.getAvailableCars(altCriteria, conflict.getPeriod());
-                
-                if(available.size()>0){
-                    // book first alternative
-                    Car alt = available.get(0);
-                    this.cancelBooking(conflict);
-                    Booking altBooking = this.bookCar(alt, conflict.getRenter(), conflict.getPeriod(), conflict.getAgreedPrice());
-                    results.add(new CustomerBookingMoved(reason, conflict, altBooking));
-                } else {
-                    // no alternatives exist
-                    bookingRepo.remove(conflict);
-                    results.add(new CustomerBookingCancelled(reason, conflict));
+            if(available.size()>0){
+                // book first alternative
+                Car alt = available.get(0);
+                Booking altBooking = new Booking(alt, conflict.getRenter(), conflict.getPeriod(), conflict.getAgreedPrice());
+                bookingRepo.remove(conflict);
+                bookingRepo.add(altBooking);
+                emit(seq -> new BookingMoved(seq, conflict, altBooking));
+                results.add(new CustomerBookingMoved(reason, conflict, altBooking));
+            } else {
+                // no alternatives exist
+                bookingRepo.remove(conflict);
+                emit(seq -> new BookingCancelled(seq, conflict));
+                results.add(new CustomerBookingCancelled(reason, conflict));
+            }
+        }
+
+        bookingRepo.add(booking);
+        emit(seq -> new MaintenanceBooked(seq, booking, results));
+        return results;
+    }
+
+
+    /**
+     * Checks the whole batch in one pass - requests sorted by car & start date, each checked against its car's
+     * existing bookings (sorted, so a binary search) and against the requests already accepted for that car - then
+     * commits the accepted ones in the same critical section. Results are in request order.
+     */
+    @Override
+    public List<BookingResult> bookCars(List<BookingRequest> requests, BookingRequest.Mode mode) throws Exception {
+        int n = requests.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator
+            .comparing((Integer i) -> requests.get(i).getCar().getRegistrationNumber())
+            .thenComparing(i -> requests.get(i).getPeriod().getStart()));
+        BookingResult.Status[] statuses = new BookingResult.Status[n];
+
+        lock.lock();
+        try {
+            int i = 0;
+            while (i < n) {
+                Car car = requests.get(order[i]).getCar();
+                List<DatePeriod> existing = bookingRepo.getByRegistration(car.getRegistrationNumber()).stream()
+                    .map(Booking::getPeriod)
+                    .sorted(Comparator.comparing(DatePeriod::getStart))
+                    .toList();
+                LocalDate acceptedUntil = null; // latest end of this car's accepted requests
+                for (; i < n && requests.get(order[i]).getCar().equals(car); i++) {
+                    DatePeriod period = requests.get(order[i]).getPeriod();
+                    if (overlapsAny(existing, period)) {
+                        statuses[order[i]] = BookingResult.Status.CONFLICTS_WITH_EXISTING;
+                    } else if (acceptedUntil != null && !period.getStart().isAfter(acceptedUntil)) {
+                        statuses[order[i]] = BookingResult.Status.CONFLICTS_WITH_BATCH;
+                    } else {
+                        statuses[order[i]] = BookingResult.Status.BOOKED;
+                        acceptedUntil = acceptedUntil == null || period.getEnd().isAfter(acceptedUntil)
+                            ? period.getEnd()
+                            : acceptedUntil;
+                    }
+                }
+            }
+
+            boolean allAccepted = Arrays.stream(statuses).allMatch(BookingResult.Status.BOOKED::equals);
+            if (mode == BookingRequest.Mode.ALL_OR_NOTHING && !allAccepted) {
+                for (int j = 0; j < n; j++) {
+                    if (statuses[j] == BookingResult.Status.BOOKED) {
+                        statuses[j] = BookingResult.Status.NOT_BOOKED;
+                    }
                 }
             }
 
-            bookingRepo.add(booking);
+            Booking[] booked = new Booking[n];
+            List<Booking> added = new ArrayList<>();
+            try {
+                for (int j = 0; j < n; j++) {
+                    if (statuses[j] == BookingResult.Status.BOOKED) {
+                        booked[j] = requests.get(j).toBooking();
+                        bookingRepo.add(booked[j]);
+                        added.add(booked[j]);
+                    }
+                }
+            } catch (Exception e) {
+                // shouldn't happen, as we hold the lock and have checked the batch - but leave nothing half-booked
+                for (Booking booking : added) {
+                    bookingRepo.removeById(booking.getId());
+                }
+                throw new Exception("Unable to book batch", e);
+            }
+            for (Booking booking : added) {
+                emit(seq -> new BookingAdded(seq, booking));
+            }
+
+            List<BookingResult> results = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                results.add(new BookingResult(requests.get(j), statuses[j], booked[j]));
+            }
             return results;
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * @param periods non-overlapping, sorted by start (so also by end)
+     */
+    private static boolean overlapsAny(List<DatePeriod> periods, DatePeriod period) {
+        // first period ending on/after our start - the only one that can overlap without an earlier one doing so
+        int next = DatePeriodUtil.firstEndingOnOrAfter(periods, period.getStart());
+        return next < periods.size() && !periods.get(next).getStart().isAfter(period.getEnd());
+    }
 
     @Override
     public boolean cancelBooking(Booking booking) throws Exception {
-        synchronized(lock){
-            return bookingRepo.remove(booking);
+        Optional<Booking> stored;
+        sharedLock.lock();
+        try {
+            // Cancel the stored booking, so listeners see what was actually booked (e.g. its agreed price)
+            stored = bookingRepo.getForPeriodAndCar(booking.getPeriod(), booking.getCar()).stream()
+                .filter(booking::equals)
+                .findFirst();
+        } finally {
+            sharedLock.unlock();
+        }
+        // not under the shared lock, as cancelling a hold takes the exclusive one
+        return stored.isPresent() && cancelBooking(stored.get().getId());
+    }
+
+    @Override
+    public boolean cancelBooking(long bookingId) throws Exception {
+        sharedLock.lock();
+        try {
+            Optional<Booking> found = bookingRepo.getById(bookingId);
+            if (found.isEmpty()) {
+                return false;
+            }
+            if (!(found.get() instanceof BookingHold)) {
+                Lock carLock = carLock(found.get().getCar());
+                carLock.lock();
+                try {
+                    // empty if someone else cancelled it meanwhile
+                    Optional<Booking> removed = bookingRepo.removeById(bookingId);
+                    removed.ifPresent(booking -> emit(seq -> new BookingCancelled(seq, booking)));
+                    return removed.isPresent();
+                } finally {
+                    carLock.unlock();
+                }
+            }
+        } finally {
+            sharedLock.unlock();
+        }
+
+        // a hold, whose timer bookkeeping is only touched under the exclusive lock
+        lock.lock();
+        try {
+            Optional<Booking> removed = bookingRepo.removeById(bookingId);
+            if (removed.isPresent() && removed.get() instanceof BookingHold) {
+                forgetHold(bookingId);
+                return true;
+            }
+            removed.ifPresent(booking -> emit(seq -> new BookingCancelled(seq, booking)));
+            return removed.isPresent();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The hold is stored like a booking (so it conflicts like one) and its expiry put on the hold timer - an O(1)
+     * schedule, no thread or scan per hold.
+     */
+    @Override
+    public Booking holdCar(Car car, Renter renter, DatePeriod period, double agreedPrice, Duration ttl)
+            throws Exception {
+        lock.lock();
+        try {
+            HashedTimerWheel<BookingHold> timer = holdTimer();
+            BookingHold hold = new BookingHold(car, renter, period, agreedPrice, timer.now() + ttl.toNanos());
+            bookingRepo.add(hold);
+            holdTimeouts.put(hold.getId(), timer.schedule(hold, ttl));
+            return hold;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Swaps the hold for a booking in the one critical section, so the car is never free in between. A hold past its
+     * deadline can't be confirmed, even if the timer hasn't got round to it yet.
+     */
+    @Override
+    public Booking confirmHold(long holdId) throws Exception {
+        lock.lock();
+        try {
+            BookingHold hold = heldBooking(holdId);
+            if (hold == null) {
+                throw new Exception("Unable to confirm: no such hold (expired or released)");
+            }
+            if (hold.hasExpired(holdTimer().now())) {
+                bookingRepo.removeById(holdId);
+                forgetHold(holdId);
+                throw new Exception("Unable to confirm: hold has expired");
+            }
+            Booking booking = hold.toBooking();
+            bookingRepo.move(hold, booking);
+            forgetHold(holdId);
+            emit(seq -> new BookingAdded(seq, booking));
+            return booking;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean releaseHold(long holdId) throws Exception {
+        lock.lock();
+        try {
+            if (heldBooking(holdId) == null) {
+                return false;
+            }
+            forgetHold(holdId);
+            return bookingRepo.removeById(holdId).isPresent();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> getBooking(long bookingId) {
+        sharedLock.lock();
+        try {
+            return bookingRepo.getById(bookingId).filter(booking -> !(booking instanceof BookingHold));
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public List<Booking> getBookingsForPeriod(DatePeriod period){
-        synchronized(lock){
-            return bookingRepo.getForPeriod(period);
+        sharedLock.lock();
+        try {
+            return withoutHolds(bookingRepo.getForPeriod(period));
+        } finally {
+            sharedLock.unlock();
         }
     }
 
+    @Override
+    public List<Booking> getBookingsForRenter(String drivingLicenseNumber) {
+        sharedLock.lock();
+        try {
+            return withoutHolds(bookingRepo.getByRenter(drivingLicenseNumber));
+        } finally {
+            sharedLock.unlock();
+        }
+    }
 
     @Override
-    public List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
-        synchronized(lock){
+    public List<Booking> getBookingsForRenter(String drivingLicenseNumber, DatePeriod period) {
+        sharedLock.lock();
+        try {
+            return withoutHolds(bookingRepo.getForPeriodAndRenter(period, drivingLicenseNumber));
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasBookingDuring(String drivingLicenseNumber, DatePeriod period) {
+        sharedLock.lock();
+        try {
+            if (holdTimeouts.isEmpty()) {
+                return bookingRepo.existsForPeriodAndRenter(period, drivingLicenseNumber);
+            }
+            return !withoutHolds(bookingRepo.getForPeriodAndRenter(period, drivingLicenseNumber)).isEmpty();
+        } finally {
+            sharedLock.unlock();
+        }
+    }
 
-            List<Car> carsWithBookings = bookingRepo.getForPeriod(period).stream()
-                .map(b -> b.getCar())            
-                .distinct()
-                .collect(toList());
 
-            List<CarView> matchingCars = carRepo.getCustomerViewByCriteria(
-                AndCriteria.of(
-                    criteria, 
-                    ExclusionListCriteria.of(carsWithBookings))
-                    );        
-                    
-            return matchingCars;
+    @Override
+    public List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
+        sharedLock.lock();
+        try {
+            return searchAvailable("getAvailableCarsCustomerView", criteria, period, carRepo::getCustomerViewByCriteria);
+        } finally {
+            sharedLock.unlock();
         }
     }
 
     @Override
     public List<CarView> getMatchingCarsCustomerView(Criteria criteria) {
-        synchronized(lock){
+        sharedLock.lock();
+        try {
             return carRepo.getCustomerViewByCriteria(criteria);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    @Override
+    public List<CarView> getCheapestAvailableCarsCustomerView(Criteria criteria, DatePeriod period, int limit) {
+        sharedLock.lock();
+        try {
+            return searchAvailable("getCheapestAvailableCarsCustomerView", criteria, period,
+                (available, scanned) -> carRepo.getCheapestCustomerViewByCriteria(available, limit, scanned));
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * <p>What we can offer instead when the requested cars aren't free - e.g. for a front end that would otherwise
+     * retry with shifted dates.</p>
+     *
+     * <p>Assumptions / Notes:</p>
+     * <ul>
+     * <li>Cars matching the criteria are offered at the smallest shift (up to +/- radiusDays) that frees them,
+     * shift 0 being the {@link AlternativeCarView.Kind#REQUESTED requested} period itself - so this can stand in for
+     * the plain search.</li>
+     * <li>Cars not matching the criteria are offered for the requested period only, nearest in group price to the
+     * cheapest matching group first.</li>
+     * <li>Ranked requested, then shifted (fewest days first, earlier before later), then other groups; cheapest first
+     * within those. One offer per car.</li>
+     * <li>One pass: the bookings over the requested period widened by the radius go into per-car timelines, then
+     * each car's shifts are binary searches of its timeline.</li>
+     * </ul>
+     */
+    @Override
+    public List<AlternativeCarView> getAlternativeCarsCustomerView(Criteria criteria, DatePeriod period,
+            int radiusDays, int limit) {
+        assert radiusDays >= 0;
+        sharedLock.lock();
+        try {
+            CriteriaSearchEvent event = new CriteriaSearchEvent();
+            event.begin();
+            long begun = System.nanoTime();
+            LocalDate from = period.getStart().minusDays(radiusDays);
+            LocalDate to = period.getEnd().plusDays(radiusDays);
+            CarTimelines timelines = new CarTimelines(bookingRepo.getForPeriod(new DatePeriod(from, to)), registry);
+            long bookedAt = System.nanoTime();
+            Map<String, Double> prices = carRepo.getBlendedPrices();
+            int start = OverlapKernel.toDay(period.getStart());
+            int end = OverlapKernel.toDay(period.getEnd());
+
+            List<AlternativeCarView> offers = new ArrayList<>();
+            double reference = Double.MAX_VALUE;
+            LongAdder scanned = new LongAdder();
+            for (Car car : carRepo.getAll()) {
+                scanned.increment();
+                int id = registry.idOf(car);
+                CarView view = CarView.fromCar(car, prices.get(car.getRentalGroup()));
+                if (!criteria.test(car)) {
+                    if (timelines.isFree(id, start, end)) {
+                        offers.add(new AlternativeCarView(view, AlternativeCarView.Kind.OTHER_GROUP, period, 0));
+                    }
+                    continue;
+                }
+                reference = Math.min(reference, view.getRentalGroupPrice());
+                for (int days = 0; days <= radiusDays; days++) {
+                    int shift = timelines.isFree(id, start - days, end - days) ? -days
+                        : timelines.isFree(id, start + days, end + days) ? days
+                        : Integer.MIN_VALUE;
+                    if (shift != Integer.MIN_VALUE) {
+                        offers.add(new AlternativeCarView(view,
+                            shift == 0 ? AlternativeCarView.Kind.REQUESTED : AlternativeCarView.Kind.SHIFTED,
+                            new DatePeriod(period.getStart().plusDays(shift), period.getEnd().plusDays(shift)),
+                            shift));
+                        break;
+                    }
+                }
+            }
+
+            // the same distance as price order for the matching cars, as the reference is their cheapest
+            double nearest = reference == Double.MAX_VALUE ? 0 : reference;
+            List<AlternativeCarView> results = offers.stream()
+                .sorted(Comparator.comparing(AlternativeCarView::getKind)
+                    .thenComparingInt(o -> Math.abs(o.getShiftDays()))
+                    .thenComparingInt(AlternativeCarView::getShiftDays)
+                    .thenComparingDouble(o -> Math.abs(o.getRentalGroupPrice() - nearest))
+                    .thenComparingDouble(AlternativeCarView::getRentalGroupPrice))
+                .limit(limit)
+                .toList();
+            long finished = System.nanoTime();
+            event.end();
+            trace(event, "getAlternativeCarsCustomerView", criteria, period, scanned, timelines.getBookedCars(),
+                results.size(), begun, bookedAt, finished);
+            return results;
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    @Override
+    public void addEventListener(RentalEventListener listener) {
+        lock.lock();
+        try {
+            // Bring the listener up to date, so it can build its own state from events alone
+            for (Car car : carRepo.getAll()) {
+                listener.onEvent(new CarAdded(eventSequence, car));
+            }
+            for (Booking booking : bookingRepo.getAll()) {
+                if (!(booking instanceof BookingHold)) {
+                    listener.onEvent(new BookingAdded(eventSequence, booking));
+                }
+            }
+            listeners.add(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Once this returns, the listener is sent nothing more (unless it's removing itself mid-event, on the emitting
+     * thread) - events are delivered under the same lock.
+     */
+    @Override
+    public void removeEventListener(RentalEventListener listener) {
+        emitLock.lock();
+        try {
+            listeners.remove(listener);
+        } finally {
+            emitLock.unlock();
+        }
+    }
+
+    @Override
+    public Flow.Publisher<RentalEvent> getChangeFeed() {
+        lock.lock();
+        try {
+            // Created on first use, so companies nobody is watching don't pay for the publisher
+            if (changeFeed == null) {
+                changeFeed = new RentalChangeFeed();
+                if (closed) {
+                    changeFeed.close(); // so subscribers are told straight away
+                } else {
+                    listeners.add(changeFeed);
+                }
+            }
+            return changeFeed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes the change feed - subscribers get onComplete once they've had the events already offered, and any
+     * subscribing later get it straight away - and stops the hold timer's thread. The company can still be used, but
+     * the feed reports nothing more, and holds only lapse via {@link #expireHolds()} (a hold past its deadline still
+     * can't be confirmed).
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            if (changeFeed != null) {
+                listeners.remove(changeFeed);
+                changeFeed.close();
+            }
+            if (holdTimer != null) {
+                holdTimer.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Availability searches slower than the log's threshold are recorded to it; null turns this off
+     */
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public CompressedBookingArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Moves up to maxBatch bookings that ended before the cutoff from the booking repo to the archive's staging
+     * area, in one short critical section (a lazy scan that stops at the batch, then an O(1) removal each) - the
+     * encoding is left to {@link CompressedBookingArchive#compact()}, off the lock. Each is reported as a
+     * {@link BookingArchived}, so views of the live bookings drop it too.
+     * <p>On a {@link MonthPartitionedBookingRepo}, whole months before the cutoff's are dropped first, a month at a
+     * time until there's a batch - so a month can take the batch over maxBatch. Holds dropped with them are
+     * forgotten (their period is long gone), not archived.</p>
+     * @return the number moved
+     */
+    int archiveEndedBefore(LocalDate cutoff, int maxBatch) throws Exception {
+        lock.lock();
+        try {
+            List<Booking> ended = new ArrayList<>();
+            if (bookingRepo instanceof MonthPartitionedBookingRepo partitioned) {
+                dropMonthsBefore(partitioned, YearMonth.from(cutoff), maxBatch, ended);
+            }
+            // the rest one by one, e.g. those ending in the cutoff's month
+            List<Booking> rest = bookingRepo.viewForPeriod(new DatePeriod(LocalDate.MIN, cutoff.minusDays(1)))
+                .filter(booking -> booking.getPeriod().getEnd().isBefore(cutoff) && !(booking instanceof BookingHold))
+                .first(Math.max(0, maxBatch - ended.size())); // copied out before the removals invalidate the view
+            for (Booking booking : rest) {
+                bookingRepo.removeById(booking.getId());
+            }
+            ended.addAll(rest);
+            archive.add(ended);
+            for (Booking booking : ended) {
+                emit(seq -> new BookingArchived(seq, booking));
+            }
+            return ended.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dropMonthsBefore(MonthPartitionedBookingRepo partitioned, YearMonth cutoff, int maxBatch,
+            List<Booking> ended) {
+        // a month still holding bookings that run on past it stays, so step past it rather than retrying it
+        YearMonth month = partitioned.getPartitions().isEmpty() ? null : partitioned.getPartitions().first();
+        for (; ended.size() < maxBatch && month != null && month.isBefore(cutoff);
+                month = partitioned.getPartitions().higher(month)) {
+            for (Booking booking : partitioned.dropMonthsBefore(month.plusMonths(1))) {
+                if (booking instanceof BookingHold) {
+                    forgetHold(booking.getId());
+                } else {
+                    ended.add(booking);
+                }
+            }
+        }
+    }
+
+    /**
+     * Uses this (unstarted) timer for holds - e.g. one on a fake clock, driven by {@link #expireHolds()}
+     */
+    void setHoldTimer(HashedTimerWheel<BookingHold> timer) {
+        lock.lock();
+        try {
+            holdTimer = timer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the hold timer up to now on the calling thread (the timer's own thread normally does this each tick)
+     * @return the number of holds expired
+     */
+    int expireHolds() {
+        HashedTimerWheel<BookingHold> timer;
+        lock.lock();
+        try {
+            timer = holdTimer();
+        } finally {
+            lock.unlock();
+        }
+        return timer.advanceBatch(this::expireHolds);
+    }
+
+    private HashedTimerWheel<BookingHold> holdTimer() {
+        if (holdTimer == null) {
+            holdTimer = new HashedTimerWheel<>(HOLD_TICK, HOLD_WHEEL_BUCKETS);
+            if (!closed) {
+                holdTimer.startBatched("booking-hold-timer", this::expireHolds);
+            }
+        }
+        return holdTimer;
+    }
+
+    /**
+     * Every hold in the repo is on the timer (both only change under the exclusive lock, so this is safe under
+     * either side) - usually none are, so the reads pay nothing for them.
+     */
+    private List<Booking> withoutHolds(List<Booking> bookings) {
+        if (holdTimeouts.isEmpty()) {
+            return bookings;
+        }
+        return bookings.stream().filter(booking -> !(booking instanceof BookingHold)).toList();
+    }
+
+    private BookingHold heldBooking(long holdId) {
+        return bookingRepo.getById(holdId)
+            .filter(BookingHold.class::isInstance)
+            .map(BookingHold.class::cast)
+            .orElse(null);
+    }
+
+    private void forgetHold(long holdId) {
+        HashedTimerWheel.Timeout<BookingHold> timeout = holdTimeouts.remove(holdId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Removes the holds a timer run found due - under one lock acquisition per run, not one per hold
+     */
+    private void expireHolds(List<BookingHold> holds) {
+        lock.lock();
+        try {
+            for (BookingHold hold : holds) {
+                // gone from the map when it was confirmed, released or bumped meanwhile
+                if (holdTimeouts.remove(hold.getId()) != null) {
+                    try {
+                        bookingRepo.removeById(hold.getId());
+                    } catch (Exception e) {
+                        // still blocking the car (though it can't be confirmed past its deadline) - so back on the
+                        // timer, for the next tick to retry
+                        holdTimeouts.put(hold.getId(), holdTimer.schedule(hold, HOLD_TICK));
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock carLock(Car car) {
+        return carLocks[Math.floorMod(car.getRegistrationNumber().hashCode(), carLocks.length)];
+    }
+
+    /**
+     * The distinct stripes of the cars, in stripe order - so two threads locking overlapping sets can't deadlock
+     */
+    private Lock[] carLocks(List<Car> cars) {
+        BitSet stripes = new BitSet(carLocks.length);
+        for (Car car : cars) {
+            stripes.set(Math.floorMod(car.getRegistrationNumber().hashCode(), carLocks.length));
+        }
+        return stripes.stream().mapToObj(stripe -> carLocks[stripe]).toArray(Lock[]::new);
+    }
+
+    private static void lockAll(Lock[] locks) {
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private static void unlockAll(Lock[] locks) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Numbers the event and delivers it, as one step - so with writes to different cars running at once, listeners
+     * still get the events one at a time and in sequence order
+     */
+    private void emit(LongFunction<RentalEvent> event) {
+        emitLock.lock();
+        try {
+            RentalEvent numbered = event.apply(++eventSequence);
+            for (RentalEventListener listener : listeners) {
+                listener.onEvent(numbered);
+            }
+        } finally {
+            emitLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the car query with the criteria narrowed to the cars not booked during the period, tracing the two stages
+     * (booked-car overlap scan, then fleet scan) to the slow-query log and JFR when either is listening.
+     */
+    private <T> List<T> searchAvailable(String operation, Criteria criteria, DatePeriod period,
+            BiFunction<Criteria, MetricsRegistry.Counter, List<T>> query) {
+        CriteriaSearchEvent event = new CriteriaSearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        BitSet booked = bookingRepo.getBookedCarIds(period, registry);
+        long bookedAt = System.nanoTime();
+        LongAdder scanned = new LongAdder();
+        List<T> results = query.apply(AndCriteria.of(criteria, ExcludedCarIdsCriteria.of(booked, registry)),
+            scanCounter(event, scanned));
+        long end = System.nanoTime();
+        event.end();
+        trace(event, operation, criteria, period, scanned, booked.cardinality(), results.size(), start, bookedAt, end);
+        return results;
+    }
+
+    /**
+     * Where the car query should count the cars it looks at - nowhere when the search can't end up traced, so an
+     * untraced search doesn't pay for counting one by one
+     */
+    private MetricsRegistry.Counter scanCounter(CriteriaSearchEvent event, LongAdder scanned) {
+        return slowQueryLog != null || event.isEnabled() ? scanned::add : MetricsRegistry.Counter.NOOP;
+    }
+
+    /**
+     * Offers the search to the slow query log and JFR, if it's slow enough for either
+     */
+    private void trace(CriteriaSearchEvent event, String operation, Criteria criteria, DatePeriod period,
+            LongAdder scanned, int bookedCars, int results, long start, long bookedAt, long end) {
+        SlowQueryLog log = slowQueryLog;
+        boolean slow = log != null && log.isSlow(end - start);
+        if (slow || event.shouldCommit()) {
+            QueryTrace trace = new QueryTrace(operation, criteria, period, Instant.now().minusNanos(end - start),
+                scanned.intValue(), bookedCars, results, bookedAt - start, end - bookedAt);
+            if (slow) {
+                log.offer(trace);
+            }
+            if (event.shouldCommit()) {
+                event.fill(trace);
+                event.commit();
+            }
         }
     }
 
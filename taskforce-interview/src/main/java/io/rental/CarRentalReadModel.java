@@ -0,0 +1,273 @@
+package io.rental;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+
+/**
+ * <p>Query side (CQRS) for the customer & pricing views of the Rental Shop.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Built purely from {@link RentalEvent}s, so reads never take the {@link CarRentalCompany} lock.</li>
+ * <li>May lag the company by up to the configured staleness bound; a read that would exceed the bound waits for
+ * the model to catch up first. Writes (and so conflict detection) still go to the company itself.</li>
+ * </ul>
+ */
+public interface CarRentalReadModel extends AutoCloseable {
+
+    List<CarView> getMatchingCarsCustomerView(Criteria criteria);
+    List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period);
+    Map<String, Double> getGroupPricing();
+
+    Duration getStaleness();
+    long getLag();
+
+    @Override
+    void close();
+}
+
+/**
+ * <p>{@link CarRentalReadModel} maintained by a background projector thread.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Events are handed off to a queue by the company (inside its lock) and applied later by the projector, so
+ * writers only pay for the enqueue.</li>
+ * <li>Keeps its own projections: a {@link CarView} per car (re-priced when its rental group's blended price changes)
+ * and an availability index of booked periods per car.</li>
+ * <li>Staleness is the age of the oldest event not yet applied (zero when caught up); lag is the number of such events.</li>
+ * <li>A staleness bound of {@link Duration#ZERO} gives read-your-writes behaviour.</li>
+ * <li>{@link #close()} unregisters it from the company, so a closed model stops collecting events.</li>
+ * <li>Holds raise no event until confirmed, so a car on hold shows as available here even though the company won't
+ * book it - booking through the company is what settles it.</li>
+ * </ul>
+ */
+class AsyncCarRentalReadModel implements CarRentalReadModel, RentalEventListener {
+
+    static AsyncCarRentalReadModel attachTo(CarRentalCompany api, Duration maxStaleness) {
+        AsyncCarRentalReadModel model = new AsyncCarRentalReadModel(maxStaleness);
+        api.addEventListener(model);
+        model.source = api;
+        return model;
+    }
+
+    private final Duration maxStaleness;
+    private final BlockingQueue<RentalEvent> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private volatile RentalEvent inFlight;
+    private volatile CarRentalCompany source; // to unregister from on close, when attached
+    private volatile boolean closed = false;
+
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition progressed = progressLock.newCondition();
+
+    // Projections - guarded by viewLock
+    private final ReentrantReadWriteLock viewLock = new ReentrantReadWriteLock();
+    private final CarRepo cars = new InMemoryCarRepo();
+    private final Map<Car, CarView> views = new LinkedHashMap<>();
+    private final Map<Car, List<DatePeriod>> bookedPeriods = new HashMap<>();
+
+    private final Thread projector;
+
+    public AsyncCarRentalReadModel(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+        this.projector = new Thread(this::runProjector, "read-model-projector");
+        this.projector.setDaemon(true);
+        this.projector.start();
+    }
+
+    @Override
+    public void onEvent(RentalEvent event) {
+        if (closed) {
+            return; // nothing left to apply it
+        }
+        received.incrementAndGet();
+        pending.add(event);
+    }
+
+    @Override
+    public List<CarView> getMatchingCarsCustomerView(Criteria criteria) {
+        awaitWithinBound();
+        viewLock.readLock().lock();
+        try {
+            return views.entrySet().stream()
+                .filter(e -> criteria.test(e.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        } finally {
+            viewLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
+        awaitWithinBound();
+        viewLock.readLock().lock();
+        try {
+            return views.entrySet().stream()
+                .filter(e -> criteria.test(e.getKey()) && isFree(e.getKey(), period))
+                .map(Map.Entry::getValue)
+                .toList();
+        } finally {
+            viewLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Double> getGroupPricing() {
+        awaitWithinBound();
+        viewLock.readLock().lock();
+        try {
+            return Map.copyOf(cars.getBlendedPrices());
+        } finally {
+            viewLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Duration getStaleness() {
+        RentalEvent oldest = inFlight;
+        if (oldest == null) {
+            oldest = pending.peek();
+        }
+        if (oldest == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, System.nanoTime() - oldest.getTimestamp()));
+    }
+
+    @Override
+    public long getLag() {
+        return received.get() - applied.get();
+    }
+
+    /**
+     * Unregisters from the company it's attached to and stops the projector; any events still queued are dropped
+     */
+    @Override
+    public void close() {
+        closed = true;
+        CarRentalCompany api = source;
+        if (api != null) {
+            api.removeEventListener(this);
+        }
+        projector.interrupt();
+        pending.clear();
+    }
+
+    private boolean isFree(Car car, DatePeriod period) {
+        List<DatePeriod> booked = bookedPeriods.get(car);
+        if (booked == null) {
+            return true;
+        }
+        for (DatePeriod b : booked) {
+            if (DatePeriodUtil.areOverlapping(period, b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * If we're further behind than the bound allows, wait until we've applied everything received so far.
+     */
+    private void awaitWithinBound() {
+        // (a zero bound goes by the lag alone, as staleness can briefly read zero while the projector picks up a batch)
+        if (getLag() == 0 || (!maxStaleness.isZero() && getStaleness().compareTo(maxStaleness) <= 0)) {
+            return;
+        }
+        long target = received.get();
+        progressLock.lock();
+        try {
+            while (applied.get() < target && projector.isAlive()) {
+                progressed.await(10, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private void runProjector() {
+        List<RentalEvent> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch);
+            inFlight = batch.get(0);
+
+            viewLock.writeLock().lock();
+            try {
+                batch.forEach(this::apply);
+            } finally {
+                viewLock.writeLock().unlock();
+            }
+
+            inFlight = null;
+            applied.addAndGet(batch.size());
+            batch.clear();
+
+            progressLock.lock();
+            try {
+                progressed.signalAll();
+            } finally {
+                progressLock.unlock();
+            }
+        }
+    }
+
+    private void apply(RentalEvent event) {
+        if (event instanceof CarAdded e) {
+            cars.add(e.getCar());
+            reprice(e.getCar().getRentalGroup());
+        } else if (event instanceof BookingAdded e) {
+            book(e.getBooking());
+        } else if (event instanceof BookingCancelled e) {
+            unbook(e.getBooking());
+        } else if (event instanceof BookingArchived e) {
+            unbook(e.getBooking());
+        } else if (event instanceof BookingMoved e) {
+            unbook(e.getOldBooking());
+            book(e.getNewBooking());
+        } else if (event instanceof MaintenanceBooked e) {
+            book(e.getBooking());
+        }
+    }
+
+    private void reprice(String rentalGroup) {
+        double price = cars.getBlendedPrices().get(rentalGroup);
+        for (Car car : cars.getByCriteria(RentalGroupCriteria.of(rentalGroup))) {
+            views.put(car, CarView.fromCar(car, price));
+        }
+    }
+
+    private void book(Booking booking) {
+        bookedPeriods.computeIfAbsent(booking.getCar(), c -> new ArrayList<>()).add(booking.getPeriod());
+    }
+
+    private void unbook(Booking booking) {
+        List<DatePeriod> booked = bookedPeriods.get(booking.getCar());
+        if (booked != null) {
+            booked.remove(booking.getPeriod());
+        }
+    }
+}
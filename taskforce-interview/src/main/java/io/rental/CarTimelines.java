@@ -0,0 +1,107 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.utils.DatePeriodUtil;
+import io.utils.OverlapKernel;
+
+/**
+ * <p>Each car's bookings as a sorted timeline of (inclusive) epoch-day ranges, for answering many availability
+ * questions about the same cars without going back to the booking repo.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>A car's bookings never overlap, so sorted by start they are also sorted by end, and "is the car free for this
+ * period" is one binary search.</li>
+ * <li>A snapshot - built from the bookings passed in (e.g. those overlapping the span of the questions), under the
+ * company lock, and not updated afterwards.</li>
+ * <li>Indexed by car id from the given {@link IdRegistry}, only looked up: bookings of cars it doesn't know are left
+ * out (such a car is free as far as this is concerned).</li>
+ * </ul>
+ */
+class CarTimelines {
+
+    private static final int[] NONE = new int[0];
+
+    private final int[][] starts; // starts[carId], sorted
+    private final int[][] ends;
+    private final int bookedCars;
+
+    CarTimelines(Collection<Booking> bookings, IdRegistry registry) {
+        int cars = registry.carCount();
+        List<List<Booking>> byCar = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            byCar.add(null);
+        }
+        for (Booking booking : bookings) {
+            int id = registry.idOf(booking.getCar());
+            if (id == IdRegistry.UNKNOWN) {
+                continue;
+            }
+            if (byCar.get(id) == null) {
+                byCar.set(id, new ArrayList<>());
+            }
+            byCar.get(id).add(booking);
+        }
+
+        starts = new int[byCar.size()][];
+        ends = new int[byCar.size()][];
+        int booked = 0;
+        for (int id = 0; id < byCar.size(); id++) {
+            List<Booking> carBookings = byCar.get(id);
+            if (carBookings == null) {
+                starts[id] = NONE;
+                ends[id] = NONE;
+                continue;
+            }
+            booked++;
+            carBookings.sort((a, b) -> a.getPeriod().getStart().compareTo(b.getPeriod().getStart()));
+            starts[id] = new int[carBookings.size()];
+            ends[id] = new int[carBookings.size()];
+            for (int i = 0; i < carBookings.size(); i++) {
+                starts[id][i] = OverlapKernel.toDay(carBookings.get(i).getPeriod().getStart());
+                ends[id][i] = OverlapKernel.toDay(carBookings.get(i).getPeriod().getEnd());
+            }
+        }
+        bookedCars = booked;
+    }
+
+    /**
+     * The number of cars with at least one booking
+     */
+    int getBookedCars() {
+        return bookedCars;
+    }
+
+    /**
+     * @return true when the car has no booking overlapping {@code [startDay, endDay]}
+     */
+    boolean isFree(int carId, int startDay, int endDay) {
+        if (carId < 0 || carId >= starts.length) {
+            return true;
+        }
+        int next = firstEndingOnOrAfter(carId, startDay);
+        return next == ends[carId].length || starts[carId][next] > endDay;
+    }
+
+    /**
+     * Index of the car's first booking that ends on/after the day, or the booking count when there's none
+     */
+    int firstEndingOnOrAfter(int carId, int day) {
+        return DatePeriodUtil.firstEndingOnOrAfter(ends[carId], day);
+    }
+
+    int bookingCount(int carId) {
+        return carId < 0 || carId >= starts.length ? 0 : starts[carId].length;
+    }
+
+    int startOf(int carId, int booking) {
+        return starts[carId][booking];
+    }
+
+    int endOf(int carId, int booking) {
+        return ends[carId][booking];
+    }
+}
@@ -1,6 +1,10 @@
 package io.rental;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -20,6 +24,11 @@ public interface Criteria extends Predicate<Car> {
         public boolean test(Car car) {
             return true;
         }
+
+        @Override
+        public String toString() {
+            return "ALL";
+        }
     };
 }
 
@@ -51,6 +60,11 @@ class CriteriaBuilder {
         criteria = new AndCriteria(criteria, new RentalGroupCriteria(rentalGroup));
         return this;
     }    
+
+    public CriteriaBuilder priceRange(double minCostPerDay, double maxCostPerDay){
+        criteria = new AndCriteria(criteria, new PriceRangeCriteria(minCostPerDay, maxCostPerDay));
+        return this;
+    }
 }
 
 /**
@@ -81,6 +95,11 @@ class AndCriteria implements Criteria {
     public boolean test(Car car) {
         return left.test(car) && right.test(car);
     }
+
+    @Override
+    public String toString() {
+        return "(" + left + " AND " + right + ")";
+    }
 }
 
 /**
@@ -106,6 +125,11 @@ class MakeCriteria implements Criteria {
     public boolean test(Car car) {
         return car.getMake().contains(make);
     }  
+
+    @Override
+    public String toString() {
+        return "make~" + make;
+    }
 }
 
 /**
@@ -131,6 +155,11 @@ class ModelCriteria implements Criteria {
     public boolean test(Car car) {
         return car.getModel().contains(model);
     }  
+
+    @Override
+    public String toString() {
+        return "model~" + model;
+    }
 }
 
 /**
@@ -156,6 +185,61 @@ class RentalGroupCriteria implements Criteria {
     public boolean test(Car car) {
         return car.getRentalGroup().equals(group);
     }  
+
+    @Override
+    public String toString() {
+        return "group=" + group;
+    }
+}
+
+/**
+ * <p>A {@link Criteria} that is true when a {@link Car}'s cost per day lies within the (inclusive) range.</p>
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Recognised by {@link InMemoryCarRepo} when it appears in a chain of {@link AndCriteria}, so the
+ * search can be answered from the sorted price index rather than a full scan.</li>
+ * </ul>
+ */
+class PriceRangeCriteria implements Criteria {
+
+    static PriceRangeCriteria of(double min, double max){
+        return new PriceRangeCriteria(min, max);
+    }
+
+    static PriceRangeCriteria atMost(double max){
+        return new PriceRangeCriteria(Double.NEGATIVE_INFINITY, max);
+    }
+
+    static PriceRangeCriteria atLeast(double min){
+        return new PriceRangeCriteria(min, Double.POSITIVE_INFINITY);
+    }
+
+    private final double min;
+    private final double max;
+
+    public PriceRangeCriteria(double min, double max) {
+        assert min <= max;
+        this.min = min;
+        this.max = max;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public boolean test(Car car) {
+        return car.getCostPerDay() >= min && car.getCostPerDay() <= max;
+    }
+
+    @Override
+    public String toString() {
+        return "price in [" + min + ", " + max + "]";
+    }
 }
 
 /**
@@ -163,7 +247,7 @@ class RentalGroupCriteria implements Criteria {
  */
 class ExclusionListCriteria implements Criteria {
 
-    static ExclusionListCriteria of(List<Car> excludeCars){
+    static ExclusionListCriteria of(Collection<Car> excludeCars){
         return new ExclusionListCriteria(excludeCars);
     }
 
@@ -171,15 +255,62 @@ class ExclusionListCriteria implements Criteria {
         return new ExclusionListCriteria(List.of(excludeCars));
     }
 
-    private List<Car> excludeCars;
+    private Set<Car> excludeCars;
 
-    public ExclusionListCriteria(List<Car> excludeCars) {
-        this.excludeCars = excludeCars;
+    public ExclusionListCriteria(Collection<Car> excludeCars) {
+        this.excludeCars = new HashSet<>(excludeCars); // tested once per car scanned, so needs to be O(1)
     }
 
     @Override
     public boolean test(Car car) {
         return excludeCars.contains(car) == false;
     }
+
+    @Override
+    public String toString() {
+        return "not in " + excludeCars.size() + " cars";
+    }
     
 }
+
+/**
+ * <p>A {@link Criteria} that is true when a {@link Car}'s id is not in the excluded set (e.g. cars already booked).</p>
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Ids are from an {@link IdRegistry}; cars unknown to the registry are never excluded.</li>
+ * <li>{@link InMemoryCarRepo} applies this by fleet position when it shares the registry, so no car is hashed.</li>
+ * </ul>
+ */
+class ExcludedCarIdsCriteria implements Criteria {
+
+    static ExcludedCarIdsCriteria of(BitSet excludedIds, IdRegistry registry){
+        return new ExcludedCarIdsCriteria(excludedIds, registry);
+    }
+
+    private final BitSet excludedIds;
+    private final IdRegistry registry;
+
+    public ExcludedCarIdsCriteria(BitSet excludedIds, IdRegistry registry) {
+        this.excludedIds = excludedIds;
+        this.registry = registry;
+    }
+
+    public IdRegistry getRegistry() {
+        return registry;
+    }
+
+    public boolean isExcluded(int carId) {
+        return excludedIds.get(carId);
+    }
+
+    @Override
+    public boolean test(Car car) {
+        int id = registry.idOf(car);
+        return id == IdRegistry.UNKNOWN || !excludedIds.get(id);
+    }
+
+    @Override
+    public String toString() {
+        return "not in " + excludedIds.cardinality() + " car ids";
+    }
+}
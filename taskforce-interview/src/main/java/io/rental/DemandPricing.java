@@ -0,0 +1,201 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.FenwickTree;
+
+/**
+ * <p>Per-day rental group prices that rise with demand, on top of the blended group price
+ * (see {@link CarRentalCompany#getGroupPricing()}).</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>A day's price is the blended price times a {@link DemandCurve} multiplier of that day's occupancy, i.e. the
+ * fraction of the group's cars that are booked (by customers or for maintenance).</li>
+ * <li>A quote is the sum of the day prices over the period.</li>
+ * </ul>
+ */
+public interface DemandPricing {
+
+    double getPrice(String rentalGroup, LocalDate day);
+    double getQuote(String rentalGroup, DatePeriod period);
+
+    /**
+     * The company's available cars for the period, each priced with its group's quote
+     */
+    List<QuotedCarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period);
+}
+
+/**
+ * Maps occupancy (0 = nothing booked, 1 = fully booked) to a price multiplier.
+ */
+@FunctionalInterface
+interface DemandCurve {
+
+    DemandCurve DEFAULT = linear(0.5);
+
+    double multiplier(double occupancy);
+
+    /**
+     * From 1 (empty) up to {@code 1 + maxSurcharge} (fully booked)
+     */
+    static DemandCurve linear(double maxSurcharge) {
+        return occupancy -> 1 + maxSurcharge * occupancy;
+    }
+}
+
+/**
+ * <p>{@link DemandPricing} with prices cached per (rental group, day) and kept up to date from {@link RentalEvent}s.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Per group: a booked-car count and a cached price per day of the window, plus a {@link FenwickTree} over the
+ * prices so that a quote is one O(log days) range-sum rather than an occupancy scan of the bookings.</li>
+ * <li>A booking change reprices just the days it covers. A car joining the fleet changes the group's blended price
+ * and fleet size, so reprices all of the group's days.</li>
+ * <li>Days outside the window have no occupancy, so are quoted at the blended price.</li>
+ * <li>Archived bookings ({@link BookingArchived}) stay counted, like in {@link OccupancyIndex}; they have ended, so
+ * only affect days already past.</li>
+ * <li>Applied synchronously inside the company lock (like {@link FenwickRentalAnalytics}), so quotes are never stale.</li>
+ * </ul>
+ */
+class DemandPricingEngine implements DemandPricing, RentalEventListener {
+
+    static DemandPricingEngine attachTo(CarRentalCompany api, DatePeriod window) {
+        return attachTo(api, window, DemandCurve.DEFAULT);
+    }
+
+    static DemandPricingEngine attachTo(CarRentalCompany api, DatePeriod window, DemandCurve curve) {
+        DemandPricingEngine engine = new DemandPricingEngine(api, window, curve);
+        api.addEventListener(engine);
+        return engine;
+    }
+
+    private final CarRentalCompany api;
+    private final DatePeriod window;
+    private final int days;
+    private final DemandCurve curve;
+
+    // guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, GroupPrices> groups = new HashMap<>();
+
+    public DemandPricingEngine(CarRentalCompany api, DatePeriod window, DemandCurve curve) {
+        long length = ChronoUnit.DAYS.between(window.getStart(), window.getEnd()) + 1;
+        assert length <= 100 * 366 : "window too long to hold per-day prices";
+        this.api = api;
+        this.window = window;
+        this.days = (int) length;
+        this.curve = curve;
+    }
+
+    @Override
+    public void onEvent(RentalEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event instanceof CarAdded e) {
+                GroupPrices prices = prices(e.getCar().getRentalGroup());
+                prices.cars++;
+                prices.totalCostPerDay += e.getCar().getCostPerDay();
+                reprice(prices, 0, days - 1);
+            } else if (event instanceof BookingAdded e) {
+                book(e.getBooking(), 1);
+            } else if (event instanceof BookingCancelled e) {
+                book(e.getBooking(), -1);
+            } else if (event instanceof BookingMoved e) {
+                book(e.getOldBooking(), -1);
+                book(e.getNewBooking(), 1);
+            } else if (event instanceof MaintenanceBooked e) {
+                book(e.getBooking(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public double getPrice(String rentalGroup, LocalDate day) {
+        return getQuote(rentalGroup, new DatePeriod(day, day));
+    }
+
+    @Override
+    public double getQuote(String rentalGroup, DatePeriod period) {
+        lock.readLock().lock();
+        try {
+            GroupPrices prices = groups.get(rentalGroup);
+            if (prices == null || prices.cars == 0) {
+                return 0;
+            }
+            long periodDays = ChronoUnit.DAYS.between(period.getStart(), period.getEnd()) + 1;
+            int[] range = DatePeriodUtil.dayOffsetsWithin(window, period);
+            if (range == null) {
+                return periodDays * prices.base();
+            }
+            long outside = periodDays - (range[1] - range[0] + 1);
+            return prices.sums.sum(range[0], range[1]) + outside * prices.base();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<QuotedCarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
+        List<CarView> available = api.getAvailableCarsCustomerView(criteria, period);
+        Map<String, Double> quotes = new HashMap<>();
+        return available.stream()
+            .map(view -> new QuotedCarView(view,
+                quotes.computeIfAbsent(view.getRentalGroup(), group -> getQuote(group, period))))
+            .toList();
+    }
+
+    private void book(Booking booking, int sign) {
+        int[] range = DatePeriodUtil.dayOffsetsWithin(window, booking.getPeriod());
+        if (range == null) {
+            return;
+        }
+        GroupPrices prices = prices(booking.getCar().getRentalGroup());
+        for (int day = range[0]; day <= range[1]; day++) {
+            prices.booked[day] += sign;
+        }
+        reprice(prices, range[0], range[1]);
+    }
+
+    private void reprice(GroupPrices prices, int from, int to) {
+        double base = prices.base();
+        for (int day = from; day <= to; day++) {
+            double occupancy = prices.cars == 0 ? 0 : Math.min(1, (double) prices.booked[day] / prices.cars);
+            double price = base * curve.multiplier(occupancy);
+            prices.sums.add(day, price - prices.price[day]);
+            prices.price[day] = price;
+        }
+    }
+
+    private GroupPrices prices(String rentalGroup) {
+        return groups.computeIfAbsent(rentalGroup, g -> new GroupPrices(days));
+    }
+
+    private static class GroupPrices {
+        int cars;
+        double totalCostPerDay;
+        final int[] booked;
+        final double[] price;
+        final FenwickTree sums;
+
+        GroupPrices(int days) {
+            booked = new int[days];
+            price = new double[days];
+            sums = new FenwickTree(days);
+        }
+
+        double base() {
+            return cars == 0 ? 0 : totalCostPerDay / cars;
+        }
+    }
+}
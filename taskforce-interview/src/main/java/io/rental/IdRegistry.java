@@ -0,0 +1,84 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.utils.ObjectIntHashMap;
+
+/**
+ * <p>Interns {@link Car}s and {@link Renter}s to dense {@code int} ids (0, 1, 2...) as they enter the repos.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Identity follows object-equality, i.e. registration number for cars and driving-licence number for renters,
+ * so an equal (but different) instance gets the same id.</li>
+ * <li>Interning hashes the key once, on the way in; after that the repos index by id (arrays, {@link java.util.BitSet}s)
+ * so conflict checks and set membership don't hash or compare strings.</li>
+ * <li>Keys map to primitive ints ({@link ObjectIntHashMap}), so neither interning nor a lookup boxes.</li>
+ * <li>Ids are never reused, and are only meaningful within the registry that issued them.</li>
+ * <li>Only {@code intern} writes; the {@code idOf} lookups don't, so queries can use them without changing the
+ * registry.</li>
+ * <li>No local locking - shared by the repos of one company and guarded by its lock, like the repos themselves.</li>
+ * </ul>
+ */
+class IdRegistry {
+
+    static final int UNKNOWN = -1;
+
+    private final ObjectIntHashMap<String> carIds = new ObjectIntHashMap<>();
+    private final List<Car> cars = new ArrayList<>();
+    private final ObjectIntHashMap<String> renterIds = new ObjectIntHashMap<>();
+    private final List<Renter> renters = new ArrayList<>();
+
+    public int intern(Car car) {
+        int id = carIds.get(car.getRegistrationNumber(), UNKNOWN);
+        if (id == UNKNOWN) {
+            id = cars.size();
+            carIds.put(car.getRegistrationNumber(), id);
+            cars.add(car);
+        }
+        return id;
+    }
+
+    public int intern(Renter renter) {
+        int id = renterIds.get(renter.getDrivingLicenseNumber(), UNKNOWN);
+        if (id == UNKNOWN) {
+            id = renters.size();
+            renterIds.put(renter.getDrivingLicenseNumber(), id);
+            renters.add(renter);
+        }
+        return id;
+    }
+
+    public int idOf(Car car) {
+        return idOfRegistration(car.getRegistrationNumber());
+    }
+
+    public int idOfRegistration(String reg) {
+        return carIds.get(reg, UNKNOWN);
+    }
+
+    public int idOf(Renter renter) {
+        return idOfLicence(renter.getDrivingLicenseNumber());
+    }
+
+    public int idOfLicence(String drivingLicenseNumber) {
+        return renterIds.get(drivingLicenseNumber, UNKNOWN);
+    }
+
+    public Car car(int id) {
+        return cars.get(id);
+    }
+
+    public Renter renter(int id) {
+        return renters.get(id);
+    }
+
+    public int carCount() {
+        return cars.size();
+    }
+
+    public int renterCount() {
+        return renters.size();
+    }
+}
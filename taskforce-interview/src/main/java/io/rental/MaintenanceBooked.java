@@ -0,0 +1,32 @@
+package io.rental;
+
+import java.util.List;
+
+/**
+ * <p>Produced when a maintenance booking has been added.</p>
+ * <p>Any customer bookings affected have already been reported by their own {@link BookingMoved} / {@link BookingCancelled}
+ * events; the {@link MaintenanceResult}s are repeated here for consumers that only care about the outcome.</p>
+ */
+public class MaintenanceBooked extends RentalEvent {
+    private final Booking booking;
+    private final List<MaintenanceResult> results;
+
+    MaintenanceBooked(long sequence, Booking booking, List<MaintenanceResult> results) {
+        super(sequence);
+        this.booking = booking;
+        this.results = List.copyOf(results);
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public List<MaintenanceResult> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "MaintenanceBooked [" + getSequence() + ", booking=" + booking + ", results=" + results + "]";
+    }
+}
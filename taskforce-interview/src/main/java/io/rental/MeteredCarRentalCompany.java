@@ -0,0 +1,455 @@
+package io.rental;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+import io.utils.DatePeriod;
+
+/**
+ * <p>Times every call to a {@link CarRentalCompany} into a per-method latency histogram ({@code api.<method>}).</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Hand-written delegation, with each method's timer looked up once here - so a call costs two clock reads and a
+ * record, with no reflection or per-call lookup. A new API method has to be added here too (the compiler insists).</li>
+ * <li>Overloads get a timer each, as their costs differ (e.g. one period vs a batch of them): the most used keeps
+ * the plain name, the others a suffix ({@code api.getAvailableCars.batch}, {@code api.cancelBooking.byId}, ...).</li>
+ * <li>Failed calls are timed too.</li>
+ * </ul>
+ */
+class MeteredCarRentalCompany implements CarRentalCompany {
+
+    static CarRentalCompany wrap(CarRentalCompany api, MetricsRegistry metrics) {
+        return new MeteredCarRentalCompany(api, metrics);
+    }
+
+    private final CarRentalCompany api;
+    private final MetricsRegistry.Timer getMatchingCarsTimer;
+    private final MetricsRegistry.Timer getAvailableCarsAllTimer;
+    private final MetricsRegistry.Timer getAvailableCarsTimer;
+    private final MetricsRegistry.Timer getAvailableCarsBatchTimer;
+    private final MetricsRegistry.Timer getCheapestAvailableCarsTimer;
+    private final MetricsRegistry.Timer countAvailableCarsTimer;
+    private final MetricsRegistry.Timer hasAvailableCarTimer;
+    private final MetricsRegistry.Timer getFirstAvailableCarsTimer;
+    private final MetricsRegistry.Timer getGroupPricingTimer;
+    private final MetricsRegistry.Timer getEarliestAvailablePeriodTimer;
+    private final MetricsRegistry.Timer getEarliestAvailableCarsTimer;
+    private final MetricsRegistry.Timer getFreePeriodsTimer;
+    private final MetricsRegistry.Timer getMatchingCarsCustomerViewTimer;
+    private final MetricsRegistry.Timer getAvailableCarsCustomerViewTimer;
+    private final MetricsRegistry.Timer getCheapestAvailableCarsCustomerViewTimer;
+    private final MetricsRegistry.Timer getAlternativeCarsCustomerViewTimer;
+    private final MetricsRegistry.Timer addCarTimer;
+    private final MetricsRegistry.Timer bookCarTimer;
+    private final MetricsRegistry.Timer bookCarsTimer;
+    private final MetricsRegistry.Timer cancelBookingTimer;
+    private final MetricsRegistry.Timer cancelBookingByIdTimer;
+    private final MetricsRegistry.Timer getBookingTimer;
+    private final MetricsRegistry.Timer holdCarTimer;
+    private final MetricsRegistry.Timer confirmHoldTimer;
+    private final MetricsRegistry.Timer releaseHoldTimer;
+    private final MetricsRegistry.Timer bookMaintenanceTimer;
+    private final MetricsRegistry.Timer getBookingsForPeriodTimer;
+    private final MetricsRegistry.Timer getBookingsForRenterTimer;
+    private final MetricsRegistry.Timer getBookingsForRenterInPeriodTimer;
+    private final MetricsRegistry.Timer hasBookingDuringTimer;
+    private final MetricsRegistry.Timer getArchiveTimer;
+    private final MetricsRegistry.Timer addEventListenerTimer;
+    private final MetricsRegistry.Timer removeEventListenerTimer;
+    private final MetricsRegistry.Timer getChangeFeedTimer;
+    private final MetricsRegistry.Timer closeTimer;
+
+    private MeteredCarRentalCompany(CarRentalCompany api, MetricsRegistry metrics) {
+        this.api = api;
+        this.getMatchingCarsTimer = metrics.timer("api.getMatchingCars");
+        this.getAvailableCarsAllTimer = metrics.timer("api.getAvailableCars.all");
+        this.getAvailableCarsTimer = metrics.timer("api.getAvailableCars");
+        this.getAvailableCarsBatchTimer = metrics.timer("api.getAvailableCars.batch");
+        this.getCheapestAvailableCarsTimer = metrics.timer("api.getCheapestAvailableCars");
+        this.countAvailableCarsTimer = metrics.timer("api.countAvailableCars");
+        this.hasAvailableCarTimer = metrics.timer("api.hasAvailableCar");
+        this.getFirstAvailableCarsTimer = metrics.timer("api.getFirstAvailableCars");
+        this.getGroupPricingTimer = metrics.timer("api.getGroupPricing");
+        this.getEarliestAvailablePeriodTimer = metrics.timer("api.getEarliestAvailablePeriod");
+        this.getEarliestAvailableCarsTimer = metrics.timer("api.getEarliestAvailableCars");
+        this.getFreePeriodsTimer = metrics.timer("api.getFreePeriods");
+        this.getMatchingCarsCustomerViewTimer = metrics.timer("api.getMatchingCarsCustomerView");
+        this.getAvailableCarsCustomerViewTimer = metrics.timer("api.getAvailableCarsCustomerView");
+        this.getCheapestAvailableCarsCustomerViewTimer = metrics.timer("api.getCheapestAvailableCarsCustomerView");
+        this.getAlternativeCarsCustomerViewTimer = metrics.timer("api.getAlternativeCarsCustomerView");
+        this.addCarTimer = metrics.timer("api.addCar");
+        this.bookCarTimer = metrics.timer("api.bookCar");
+        this.bookCarsTimer = metrics.timer("api.bookCars");
+        this.cancelBookingTimer = metrics.timer("api.cancelBooking");
+        this.cancelBookingByIdTimer = metrics.timer("api.cancelBooking.byId");
+        this.getBookingTimer = metrics.timer("api.getBooking");
+        this.holdCarTimer = metrics.timer("api.holdCar");
+        this.confirmHoldTimer = metrics.timer("api.confirmHold");
+        this.releaseHoldTimer = metrics.timer("api.releaseHold");
+        this.bookMaintenanceTimer = metrics.timer("api.bookMaintenance");
+        this.getBookingsForPeriodTimer = metrics.timer("api.getBookingsForPeriod");
+        this.getBookingsForRenterTimer = metrics.timer("api.getBookingsForRenter");
+        this.getBookingsForRenterInPeriodTimer = metrics.timer("api.getBookingsForRenter.period");
+        this.hasBookingDuringTimer = metrics.timer("api.hasBookingDuring");
+        this.getArchiveTimer = metrics.timer("api.getArchive");
+        this.addEventListenerTimer = metrics.timer("api.addEventListener");
+        this.removeEventListenerTimer = metrics.timer("api.removeEventListener");
+        this.getChangeFeedTimer = metrics.timer("api.getChangeFeed");
+        this.closeTimer = metrics.timer("api.close");
+    }
+
+    @Override
+    public List<Car> getMatchingCars(Criteria criteria) {
+        long start = System.nanoTime();
+        try {
+            return api.getMatchingCars(criteria);
+        } finally {
+            getMatchingCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Car> getAvailableCars(DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.getAvailableCars(period);
+        } finally {
+            getAvailableCarsAllTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Car> getAvailableCars(Criteria criteria, DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.getAvailableCars(criteria, period);
+        } finally {
+            getAvailableCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Car> getCheapestAvailableCars(Criteria criteria, DatePeriod period, int limit) {
+        long start = System.nanoTime();
+        try {
+            return api.getCheapestAvailableCars(criteria, period, limit);
+        } finally {
+            getCheapestAvailableCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<List<Car>> getAvailableCars(Criteria criteria, List<DatePeriod> periods) {
+        long start = System.nanoTime();
+        try {
+            return api.getAvailableCars(criteria, periods);
+        } finally {
+            getAvailableCarsBatchTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Integer> countAvailableCars(Criteria criteria, List<DatePeriod> periods) {
+        long start = System.nanoTime();
+        try {
+            return api.countAvailableCars(criteria, periods);
+        } finally {
+            countAvailableCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean hasAvailableCar(Criteria criteria, DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.hasAvailableCar(criteria, period);
+        } finally {
+            hasAvailableCarTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Car> getFirstAvailableCars(Criteria criteria, DatePeriod period, int limit) {
+        long start = System.nanoTime();
+        try {
+            return api.getFirstAvailableCars(criteria, period, limit);
+        } finally {
+            getFirstAvailableCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Map<String, Double> getGroupPricing() {
+        long start = System.nanoTime();
+        try {
+            return api.getGroupPricing();
+        } finally {
+            getGroupPricingTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<DatePeriod> getEarliestAvailablePeriod(Car car, LocalDate from, int days) {
+        long start = System.nanoTime();
+        try {
+            return api.getEarliestAvailablePeriod(car, from, days);
+        } finally {
+            getEarliestAvailablePeriodTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<CarAvailability> getEarliestAvailableCars(Criteria criteria, LocalDate from, int days, int limit) {
+        long start = System.nanoTime();
+        try {
+            return api.getEarliestAvailableCars(criteria, from, days, limit);
+        } finally {
+            getEarliestAvailableCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<DatePeriod> getFreePeriods(Car car, DatePeriod range, int minDays) {
+        long start = System.nanoTime();
+        try {
+            return api.getFreePeriods(car, range, minDays);
+        } finally {
+            getFreePeriodsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<CarView> getMatchingCarsCustomerView(Criteria criteria) {
+        long start = System.nanoTime();
+        try {
+            return api.getMatchingCarsCustomerView(criteria);
+        } finally {
+            getMatchingCarsCustomerViewTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<CarView> getAvailableCarsCustomerView(Criteria criteria, DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.getAvailableCarsCustomerView(criteria, period);
+        } finally {
+            getAvailableCarsCustomerViewTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<CarView> getCheapestAvailableCarsCustomerView(Criteria criteria, DatePeriod period, int limit) {
+        long start = System.nanoTime();
+        try {
+            return api.getCheapestAvailableCarsCustomerView(criteria, period, limit);
+        } finally {
+            getCheapestAvailableCarsCustomerViewTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<AlternativeCarView> getAlternativeCarsCustomerView(Criteria criteria, DatePeriod period, int radiusDays, int limit) {
+        long start = System.nanoTime();
+        try {
+            return api.getAlternativeCarsCustomerView(criteria, period, radiusDays, limit);
+        } finally {
+            getAlternativeCarsCustomerViewTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void addCar(Car car) {
+        long start = System.nanoTime();
+        try {
+            api.addCar(car);
+        } finally {
+            addCarTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Booking bookCar(Car car, Renter renter, DatePeriod period, double agreedPrice) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.bookCar(car, renter, period, agreedPrice);
+        } finally {
+            bookCarTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<BookingResult> bookCars(List<BookingRequest> requests, BookingRequest.Mode mode) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.bookCars(requests, mode);
+        } finally {
+            bookCarsTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean cancelBooking(Booking booking) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.cancelBooking(booking);
+        } finally {
+            cancelBookingTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean cancelBooking(long bookingId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.cancelBooking(bookingId);
+        } finally {
+            cancelBookingByIdTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<Booking> getBooking(long bookingId) {
+        long start = System.nanoTime();
+        try {
+            return api.getBooking(bookingId);
+        } finally {
+            getBookingTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Booking holdCar(Car car, Renter renter, DatePeriod period, double agreedPrice, Duration ttl) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.holdCar(car, renter, period, agreedPrice, ttl);
+        } finally {
+            holdCarTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Booking confirmHold(long holdId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.confirmHold(holdId);
+        } finally {
+            confirmHoldTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean releaseHold(long holdId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.releaseHold(holdId);
+        } finally {
+            releaseHoldTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<MaintenanceResult> bookMaintenance(String reason, Car car, DatePeriod period) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return api.bookMaintenance(reason, car, period);
+        } finally {
+            bookMaintenanceTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Booking> getBookingsForPeriod(DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.getBookingsForPeriod(period);
+        } finally {
+            getBookingsForPeriodTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Booking> getBookingsForRenter(String drivingLicenseNumber) {
+        long start = System.nanoTime();
+        try {
+            return api.getBookingsForRenter(drivingLicenseNumber);
+        } finally {
+            getBookingsForRenterTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Booking> getBookingsForRenter(String drivingLicenseNumber, DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.getBookingsForRenter(drivingLicenseNumber, period);
+        } finally {
+            getBookingsForRenterInPeriodTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean hasBookingDuring(String drivingLicenseNumber, DatePeriod period) {
+        long start = System.nanoTime();
+        try {
+            return api.hasBookingDuring(drivingLicenseNumber, period);
+        } finally {
+            hasBookingDuringTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public BookingArchive getArchive() {
+        long start = System.nanoTime();
+        try {
+            return api.getArchive();
+        } finally {
+            getArchiveTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void addEventListener(RentalEventListener listener) {
+        long start = System.nanoTime();
+        try {
+            api.addEventListener(listener);
+        } finally {
+            addEventListenerTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void removeEventListener(RentalEventListener listener) {
+        long start = System.nanoTime();
+        try {
+            api.removeEventListener(listener);
+        } finally {
+            removeEventListenerTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Flow.Publisher<RentalEvent> getChangeFeed() {
+        long start = System.nanoTime();
+        try {
+            return api.getChangeFeed();
+        } finally {
+            getChangeFeedTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        long start = System.nanoTime();
+        try {
+            api.close();
+        } finally {
+            closeTimer.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.rental;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.utils.LatencyHistogram;
+
+/**
+ * <p>Publishes an {@link InMemoryMetricsRegistry} as a read-only JMX MBean (e.g. for JConsole / a JMX scraper).</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>One attribute per counter, and {@code <timer>.count|mean|p50|p99|p999|max} per timer (in nanoseconds).</li>
+ * <li>Attributes are read from the registry on each request, so metrics created later show up too.</li>
+ * <li>A {@code reset} operation clears the registry.</li>
+ * </ul>
+ */
+class MetricsJmxExporter implements DynamicMBean {
+
+    static final String DOMAIN = "io.rental";
+
+    static ObjectName register(InMemoryMetricsRegistry metrics, String name) throws Exception {
+        return register(metrics, name, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    static ObjectName register(InMemoryMetricsRegistry metrics, String name, MBeanServer server) throws Exception {
+        ObjectName objectName = new ObjectName(DOMAIN, "name", name);
+        server.registerMBean(new MetricsJmxExporter(metrics), objectName);
+        return objectName;
+    }
+
+    private static final String[] STATS = { "count", "mean", "p50", "p99", "p999", "max" };
+
+    private final InMemoryMetricsRegistry metrics;
+
+    MetricsJmxExporter(InMemoryMetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Map<String, Long> counters = metrics.getCounters();
+        if (counters.containsKey(attribute)) {
+            return counters.get(attribute);
+        }
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            LatencyHistogram histogram = metrics.getTimers().get(attribute.substring(0, dot));
+            if (histogram != null) {
+                switch (attribute.substring(dot + 1)) {
+                    case "count": return histogram.getCount();
+                    case "mean": return (long) histogram.getMean();
+                    case "p50": return histogram.getValueAtPercentile(50);
+                    case "p99": return histogram.getValueAtPercentile(99);
+                    case "p999": return histogram.getValueAtPercentile(99.9);
+                    case "max": return histogram.getMax();
+                    default: break;
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // skipped, as per the DynamicMBean contract
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        if ("reset".equals(actionName)) {
+            metrics.reset();
+            return null;
+        }
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String counter : metrics.getCounters().keySet()) {
+            attributes.add(new MBeanAttributeInfo(counter, "long", "counter", true, false, false));
+        }
+        for (String timer : metrics.getTimers().keySet()) {
+            for (String stat : STATS) {
+                attributes.add(new MBeanAttributeInfo(timer + "." + stat, "long", stat + " (ns)", true, false, false));
+            }
+        }
+        return new MBeanInfo(
+            MetricsJmxExporter.class.getName(),
+            "Car rental metrics",
+            attributes.toArray(new MBeanAttributeInfo[0]),
+            null,
+            new MBeanOperationInfo[] {
+                new MBeanOperationInfo("reset", "Clears all metrics", null, "void", MBeanOperationInfo.ACTION)
+            },
+            null);
+    }
+}
@@ -0,0 +1,148 @@
+package io.rental;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.utils.LatencyHistogram;
+
+/**
+ * <p>Where the company & repos report their timings and counts - pluggable, so it can be bridged to whatever the
+ * deployment already uses.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Callers look their {@link Timer}s & {@link Counter}s up once (e.g. into a field) and record straight into
+ * them, so the hot path never goes via a name lookup.</li>
+ * <li>Timers are in nanoseconds.</li>
+ * <li>{@link #NOOP} is the default everywhere, so nothing is recorded unless a registry is passed in.</li>
+ * </ul>
+ */
+public interface MetricsRegistry {
+
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public Timer timer(String name) {
+            return nanos -> { };
+        }
+
+        @Override
+        public Counter counter(String name) {
+            return Counter.NOOP;
+        }
+    };
+
+    Timer timer(String name);
+    Counter counter(String name);
+
+    @FunctionalInterface
+    interface Timer {
+        void record(long nanos);
+    }
+
+    @FunctionalInterface
+    interface Counter {
+        Counter NOOP = delta -> { };
+
+        void add(long delta);
+
+        default void increment() {
+            add(1);
+        }
+    }
+}
+
+/**
+ * <p>{@link MetricsRegistry} keeping a {@link LatencyHistogram} per timer and a {@link LongAdder} per counter.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Everything recorded since creation (or {@link #reset()}) - there are no time windows.</li>
+ * <li>Can be published over JMX with {@link MetricsJmxExporter}.</li>
+ * </ul>
+ */
+class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Timer timer(String name) {
+        return histogram(name)::record;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder())::add;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public Map<String, LatencyHistogram> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    public void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+}
+
+/**
+ * <p>{@link ReentrantLock} that records how long callers wait to get it, and how long they then hold it.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Only the outermost {@link #lock()} / {@link #unlock()} of a (re-entrant) hold is timed.</li>
+ * <li>Only covers {@code lock()}, which is all the company uses.</li>
+ * </ul>
+ */
+class MeteredLock extends ReentrantLock {
+
+    private static final long serialVersionUID = 1L;
+
+    // ReentrantLock is Serializable but the company holding this never is, so the timers are simply left out
+    private final transient MetricsRegistry.Timer waitTime;
+    private final transient MetricsRegistry.Timer holdTime;
+    private transient long acquiredAt; // only touched by the owner
+
+    MeteredLock(MetricsRegistry metrics, String name) {
+        this.waitTime = metrics.timer(name + ".wait");
+        this.holdTime = metrics.timer(name + ".hold");
+    }
+
+    @Override
+    public void lock() {
+        if (isHeldByCurrentThread()) {
+            super.lock();
+            return;
+        }
+        long start = System.nanoTime();
+        super.lock();
+        acquiredAt = System.nanoTime();
+        waitTime.record(acquiredAt - start);
+    }
+
+    @Override
+    public void unlock() {
+        if (getHoldCount() == 1) {
+            holdTime.record(System.nanoTime() - acquiredAt);
+        }
+        super.unlock();
+    }
+}
@@ -0,0 +1,291 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.LongObjectHashMap;
+
+/**
+ * <p>
+ * {@link BookingRepo} partitioned by calendar month, so period queries & conflict checks only look at the months
+ * they cover - not the years of bookings either side.
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ol>
+ * <li>A booking is referenced from the partition of every month it touches. Those touching more than one are
+ * de-duplicated per query (most don't, so that's a short identity set).</li>
+ * <li>Bookings spanning more than {@code maxSpanMonths} months (e.g. {@link DatePeriod#ALL_TIME} maintenance) would
+ * bloat every partition, so they go in one overflow list instead, which every query also checks.</li>
+ * <li>Old months can be dropped as a unit ({@link #dropMonthsBefore}) once all their bookings have ended - which is how the company's retention
+ * archives them (see {@link CarRentalCompanyImpl#archiveEndedBefore}).</li>
+ * <li>Bookings are also keyed by id, for {@link #getAll()} & the id look-ups. Renter & registration look-ups scan
+ * those.</li>
+ * <li>Same locking story as {@link InMemoryBookingRepo}: ALL access via the API impl.</li>
+ * </ol>
+ */
+class MonthPartitionedBookingRepo implements BookingRepo {
+
+    static final int DEFAULT_MAX_SPAN_MONTHS = 12;
+
+    private final int maxSpanMonths;
+    private final NavigableMap<YearMonth, List<Booking>> partitions = new TreeMap<>();
+    private final List<Booking> overflow = new ArrayList<>();
+    private final LongObjectHashMap<Booking> db = new LongObjectHashMap<>();
+
+    private final MetricsRegistry.Counter partitionsVisited;
+
+    public MonthPartitionedBookingRepo() {
+        this(DEFAULT_MAX_SPAN_MONTHS, MetricsRegistry.NOOP);
+    }
+
+    public MonthPartitionedBookingRepo(int maxSpanMonths, MetricsRegistry metrics) {
+        assert maxSpanMonths > 0;
+        this.maxSpanMonths = maxSpanMonths;
+        this.partitionsVisited = metrics.counter("bookings.partitions.visited");
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        return db.values();
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        return scan(b -> b.getCar().getRegistrationNumber().equals(reg));
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        return find(period, b -> true);
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
+        return find(period, b -> b.getCar().equals(car));
+    }
+
+    @Override
+    public List<Booking> getConflicts(Car car, DatePeriod period) {
+        return this.getForPeriodAndCar(period, car);
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        return scan(b -> b.getRenter().getDrivingLicenseNumber().equals(drivingLicenseNumber));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return find(period, b -> b.getRenter().getDrivingLicenseNumber().equals(drivingLicenseNumber));
+    }
+
+    @Override
+    public void add(Booking booking) throws Exception {
+        if (getConflicts(booking.getCar(), booking.getPeriod()).size() > 0) {
+            throw new Exception("Unable to book: conflicting bookings");
+        }
+        index(booking);
+    }
+
+    @Override
+    public void maintenanceSwap(MaintenanceBooking maintenance, Booking customer_old, Booking customer_new)
+            throws Exception {
+        try {
+            this.remove(customer_old);
+            this.add(customer_new);
+            this.add(maintenance);
+        } catch (Exception e) {
+            // attempt some basic tx rollback here
+            unindex(maintenance);
+            unindex(customer_new);
+            unindex(customer_old);
+            throw new Exception("Could not swap customer's booking", e);
+        }
+    }
+
+    @Override
+    public boolean remove(Booking booking) throws Exception {
+        return unindex(booking);
+    }
+
+    @Override
+    public Optional<Booking> getById(long id) {
+        return Optional.ofNullable(db.get(id));
+    }
+
+    @Override
+    public Optional<Booking> removeById(long id) {
+        Booking booking = db.remove(id);
+        if (booking == null) {
+            return Optional.empty();
+        }
+        if (isOverflow(booking.getPeriod())) {
+            overflow.remove(booking);
+        } else {
+            for (YearMonth month = first(booking); !month.isAfter(last(booking)); month = month.plusMonths(1)) {
+                List<Booking> partition = partitions.get(month);
+                if (partition != null) { // null when the month has been dropped
+                    partition.remove(booking);
+                    if (partition.isEmpty()) {
+                        partitions.remove(month);
+                    }
+                }
+            }
+        }
+        return Optional.of(booking);
+    }
+
+    @Override
+    public void move(Booking booking_old, Booking booking_new) throws Exception {
+        try {
+            remove(booking_old);
+            add(booking_new);
+        } catch (Exception x) {
+            // try to clean-up //
+            unindex(booking_new);
+            unindex(booking_old);
+            index(booking_old);
+            throw new Exception("Unable to move booking", x);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        partitions.clear();
+        overflow.clear();
+        db.clear();
+    }
+
+    /**
+     * Months with at least one booking (not counting the overflow), oldest first
+     */
+    NavigableSet<YearMonth> getPartitions() {
+        return partitions.navigableKeySet();
+    }
+
+    /**
+     * Drops the bookings that ended before the given month from the partitions of the months before it. A month
+     * goes as a unit once none of its bookings run on into the given month; until then it keeps just those, so they
+     * are still found (and conflict) on their early days.
+     * @return the bookings removed - those that ended before that month; any running on into it stay
+     */
+    List<Booking> dropMonthsBefore(YearMonth month) {
+        LocalDate cutoff = month.atDay(1);
+        List<Booking> removed = new ArrayList<>();
+        Iterator<Map.Entry<YearMonth, List<Booking>>> dropped = partitions.headMap(month, false).entrySet().iterator();
+        while (dropped.hasNext()) {
+            Map.Entry<YearMonth, List<Booking>> partition = dropped.next();
+            for (Booking booking : partition.getValue()) {
+                // once each, from the month it ends in
+                if (last(booking).equals(partition.getKey())) {
+                    removed.add(booking);
+                }
+            }
+            partition.getValue().removeIf(booking -> last(booking).isBefore(month));
+            if (partition.getValue().isEmpty()) {
+                dropped.remove();
+            }
+        }
+        for (Booking booking : overflow) {
+            if (booking.getPeriod().getEnd().isBefore(cutoff)) {
+                removed.add(booking);
+            }
+        }
+        overflow.removeAll(removed);
+        for (Booking booking : removed) {
+            db.remove(booking.getId());
+        }
+        return removed;
+    }
+
+    /**
+     * Bookings overlapping the period that pass the filter, from the partitions of the months it covers & the overflow
+     */
+    private List<Booking> find(DatePeriod period, Predicate<Booking> filter) {
+        List<Booking> results = new ArrayList<>();
+        Set<Booking> multiMonth = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<YearMonth, List<Booking>> visited =
+            partitions.subMap(YearMonth.from(period.getStart()), true, YearMonth.from(period.getEnd()), true);
+        for (List<Booking> partition : visited.values()) {
+            for (Booking booking : partition) {
+                if (DatePeriodUtil.areOverlapping(period, booking.getPeriod())
+                        && filter.test(booking)
+                        && (first(booking).equals(last(booking)) || multiMonth.add(booking))) {
+                    results.add(booking);
+                }
+            }
+        }
+        partitionsVisited.add(visited.size());
+        for (Booking booking : overflow) {
+            if (DatePeriodUtil.areOverlapping(period, booking.getPeriod()) && filter.test(booking)) {
+                results.add(booking);
+            }
+        }
+        return results;
+    }
+
+    private List<Booking> scan(Predicate<Booking> filter) {
+        List<Booking> results = new ArrayList<>();
+        db.forEachValue(b -> {
+            if (filter.test(b)) {
+                results.add(b);
+            }
+        });
+        return results;
+    }
+
+    private boolean isOverflow(DatePeriod period) {
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(period.getStart()), YearMonth.from(period.getEnd()));
+        return months >= maxSpanMonths;
+    }
+
+    private static YearMonth first(Booking booking) {
+        return YearMonth.from(booking.getPeriod().getStart());
+    }
+
+    private static YearMonth last(Booking booking) {
+        return YearMonth.from(booking.getPeriod().getEnd());
+    }
+
+    private void index(Booking booking) {
+        if (isOverflow(booking.getPeriod())) {
+            overflow.add(booking);
+        } else {
+            for (YearMonth month = first(booking); !month.isAfter(last(booking)); month = month.plusMonths(1)) {
+                partitions.computeIfAbsent(month, m -> new ArrayList<>()).add(booking);
+            }
+        }
+        db.put(booking.getId(), booking);
+    }
+
+    private boolean unindex(Booking booking) {
+        // the caller's instance may be an equal copy of the stored one, so find the stored one to get its id
+        List<Booking> candidates = isOverflow(booking.getPeriod())
+            ? overflow
+            : partitions.getOrDefault(last(booking), List.of());
+        int i = candidates.indexOf(booking);
+        if (i < 0) {
+            return false;
+        }
+        removeById(candidates.get(i).getId());
+        return true;
+    }
+}
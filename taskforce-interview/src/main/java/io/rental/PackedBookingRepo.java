@@ -0,0 +1,191 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.utils.DatePeriod;
+import io.utils.OverlapKernel;
+
+/**
+ * <p>
+ * {@link BookingRepo} holding booking periods as packed epoch-day arrays, so that full overlap scans (long report
+ * windows, whole-group availability) run over primitive arrays with an {@link OverlapKernel}
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ol>
+ * <li>Parallel arrays: {@code starts[i]}, {@code ends[i]} are the period of {@code bookings[i]}.</li>
+ * <li>Removal swaps the last booking into the gap, so order isn't kept (nor is it in the query results).</li>
+ * <li>Same locking story as {@link InMemoryBookingRepo}: ALL access via the API impl.</li>
+ * </ol>
+ */
+class PackedBookingRepo implements BookingRepo {
+
+    private final OverlapKernel kernel;
+
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private Booking[] bookings = new Booking[64];
+    private int size = 0;
+
+    public PackedBookingRepo() {
+        this(OverlapKernel.best());
+    }
+
+    public PackedBookingRepo(OverlapKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        return List.of(Arrays.copyOf(bookings, size));
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        List<Booking> results = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (bookings[i].getCar().getRegistrationNumber().equals(reg)) {
+                results.add(bookings[i]);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        return collect(overlapping(period), null);
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
+        return collect(overlapping(period), car);
+    }
+
+    @Override
+    public List<Booking> getConflicts(Car car, DatePeriod period) {
+        return this.getForPeriodAndCar(period, car);
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        List<Booking> results = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (bookings[i].getRenter().getDrivingLicenseNumber().equals(drivingLicenseNumber)) {
+                results.add(bookings[i]);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return collect(overlapping(period), null).stream()
+            .filter(b -> b.getRenter().getDrivingLicenseNumber().equals(drivingLicenseNumber))
+            .toList();
+    }
+
+    @Override
+    public void add(Booking booking) throws Exception {
+        if (getConflicts(booking.getCar(), booking.getPeriod()).size() > 0) {
+            throw new Exception("Unable to book: conflicting bookings");
+        }
+        append(booking);
+    }
+
+    @Override
+    public void maintenanceSwap(MaintenanceBooking maintenance, Booking customer_old, Booking customer_new)
+            throws Exception {
+        try {
+            this.remove(customer_old);
+            this.add(customer_new);
+            this.add(maintenance);
+        } catch (Exception e) {
+            // attempt some basic tx rollback here
+            delete(maintenance);
+            delete(customer_new);
+            delete(customer_old);
+            throw new Exception("Could not swap customer's booking", e);
+        }
+    }
+
+    @Override
+    public boolean remove(Booking booking) throws Exception {
+        return delete(booking);
+    }
+
+    @Override
+    public void move(Booking booking_old, Booking booking_new) throws Exception {
+        try {
+            remove(booking_old);
+            add(booking_new);
+        } catch (Exception x) {
+            // try to clean-up //
+            delete(booking_new);
+            delete(booking_old);
+            append(booking_old);
+            throw new Exception("Unable to move booking", x);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        Arrays.fill(bookings, 0, size, null);
+        size = 0;
+    }
+
+    String getKernelName() {
+        return kernel.name();
+    }
+
+    private long[] overlapping(DatePeriod period) {
+        long[] mask = OverlapKernel.newMask(size);
+        kernel.scan(starts, ends, size, OverlapKernel.toDay(period.getStart()), OverlapKernel.toDay(period.getEnd()), mask);
+        return mask;
+    }
+
+    private List<Booking> collect(long[] mask, Car car) {
+        List<Booking> results = new ArrayList<>();
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                Booking booking = bookings[(word << 6) + Long.numberOfTrailingZeros(bits)];
+                if (car == null || booking.getCar().equals(car)) {
+                    results.add(booking);
+                }
+                bits &= bits - 1;
+            }
+        }
+        return results;
+    }
+
+    private void append(Booking booking) {
+        if (size == bookings.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            bookings = Arrays.copyOf(bookings, capacity);
+        }
+        starts[size] = OverlapKernel.toDay(booking.getPeriod().getStart());
+        ends[size] = OverlapKernel.toDay(booking.getPeriod().getEnd());
+        bookings[size] = booking;
+        size++;
+    }
+
+    private boolean delete(Booking booking) {
+        for (int i = 0; i < size; i++) {
+            if (bookings[i].equals(booking)) {
+                size--;
+                starts[i] = starts[size];
+                ends[i] = ends[size];
+                bookings[i] = bookings[size];
+                bookings[size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+}
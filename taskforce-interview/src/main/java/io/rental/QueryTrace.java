@@ -0,0 +1,168 @@
+package io.rental;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.utils.DatePeriod;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>Where the time went in one availability search: the booking overlap scan (to find the booked cars), then the
+ * fleet scan with the criteria.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Fleet scanned is the cars the car query actually looked at: fewer than the fleet when a price-range criteria
+ * lets the repo use its index, a sharded repo only visits the group's shard, or the search stops early (e.g.
+ * {@link CarRentalCompany#hasAvailableCar}).</li>
+ * <li>The searches that check each car's bookings as they go (e.g. {@link CarRentalCompany#getFirstAvailableCars})
+ * have no separate booked-car stage: their booked cars are the matching ones found booked, and all the time is the
+ * fleet scan's.</li>
+ * <li>The criteria is the caller's (the booked-car exclusion is the first stage), normalised only when asked for.</li>
+ * </ul>
+ */
+public final class QueryTrace {
+
+    private final String operation;
+    private final Criteria criteria;
+    private final DatePeriod period;
+    private final Instant startedAt;
+    private final int fleetScanned;
+    private final int bookedCars;
+    private final int results;
+    private final long bookedCarsNanos;
+    private final long fleetScanNanos;
+
+    QueryTrace(String operation, Criteria criteria, DatePeriod period, Instant startedAt, int fleetScanned,
+            int bookedCars, int results, long bookedCarsNanos, long fleetScanNanos) {
+        this.operation = operation;
+        this.criteria = criteria;
+        this.period = period;
+        this.startedAt = startedAt;
+        this.fleetScanned = fleetScanned;
+        this.bookedCars = bookedCars;
+        this.results = results;
+        this.bookedCarsNanos = bookedCarsNanos;
+        this.fleetScanNanos = fleetScanNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getCriteria() {
+        return normalise(criteria);
+    }
+
+    public DatePeriod getPeriod() {
+        return period;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public int getFleetScanned() {
+        return fleetScanned;
+    }
+
+    public int getBookedCars() {
+        return bookedCars;
+    }
+
+    public int getResults() {
+        return results;
+    }
+
+    public long getBookedCarsNanos() {
+        return bookedCarsNanos;
+    }
+
+    public long getFleetScanNanos() {
+        return fleetScanNanos;
+    }
+
+    public long getTotalNanos() {
+        return bookedCarsNanos + fleetScanNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTrace [" + operation + " " + getCriteria() + " period=" + period
+            + ", bookedCars=" + bookedCars + " in " + bookedCarsNanos + "ns"
+            + ", fleetScanned=" + fleetScanned + " -> results=" + results + " in " + fleetScanNanos + "ns]";
+    }
+
+    /**
+     * Flattens the AND chain and sorts its terms, so equivalent searches read (and group) the same in the log
+     */
+    static String normalise(Criteria criteria) {
+        List<String> terms = new ArrayList<>();
+        flatten(criteria, terms);
+        terms.sort(null);
+        return terms.isEmpty() ? Criteria.ALL.toString() : String.join(" AND ", terms);
+    }
+
+    private static void flatten(Criteria criteria, List<String> terms) {
+        if (criteria instanceof AndCriteria and) {
+            flatten(and.getLeft(), terms);
+            flatten(and.getRight(), terms);
+        } else if (criteria != Criteria.ALL) {
+            terms.add(criteria.toString());
+        }
+    }
+}
+
+/**
+ * JFR view of a {@link QueryTrace}, so slow searches can be lined up with GC & lock profiling in the same recording.
+ * Enable {@code io.rental.CriteriaSearch} (with a {@code threshold} to only keep slow ones).
+ */
+@Name("io.rental.CriteriaSearch")
+@Label("Criteria Search")
+@Category("Car Rental")
+@Description("Availability search: booked-car overlap scan, then fleet scan")
+class CriteriaSearchEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Criteria")
+    String criteria;
+
+    @Label("Period")
+    String period;
+
+    @Label("Fleet Scanned")
+    int fleetScanned;
+
+    @Label("Booked Cars")
+    int bookedCars;
+
+    @Label("Results")
+    int results;
+
+    @Label("Booked Cars Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long bookedCarsNanos;
+
+    @Label("Fleet Scan Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long fleetScanNanos;
+
+    void fill(QueryTrace trace) {
+        operation = trace.getOperation();
+        criteria = trace.getCriteria();
+        period = trace.getPeriod().getStart() + ".." + trace.getPeriod().getEnd();
+        fleetScanned = trace.getFleetScanned();
+        bookedCars = trace.getBookedCars();
+        results = trace.getResults();
+        bookedCarsNanos = trace.getBookedCarsNanos();
+        fleetScanNanos = trace.getFleetScanNanos();
+    }
+}
@@ -0,0 +1,26 @@
+package io.rental;
+
+/**
+ * Customer view of Car for a specific rental period, with the demand-based price for the whole period
+ *
+ * @see DemandPricing
+ */
+public class QuotedCarView extends CarView {
+
+    private final double quote;
+
+    public QuotedCarView(CarView view, double quote) {
+        super(view.getMake(), view.getModel(), view.getRentalGroup(), view.getRentalGroupPrice());
+        this.quote = quote;
+    }
+
+    public double getQuote() {
+        return quote;
+    }
+
+    @Override
+    public String toString() {
+        return "QuotedCarView [" + getMake() + " " + getModel() + " rentalGroup=" + getRentalGroup()
+            + ", rentalGroupPrice=" + getRentalGroupPrice() + ", quote=" + quote + "]";
+    }
+}
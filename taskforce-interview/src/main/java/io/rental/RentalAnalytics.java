@@ -0,0 +1,190 @@
+package io.rental;
+
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.FenwickTree;
+
+/**
+ * <p>Management reporting over the bookings: utilisation, revenue & maintenance downtime per rental group.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Only days inside the engine's {@link #getWindow() window} are counted; a booking partly outside it contributes
+ * just the days (and share of revenue) inside it.</li>
+ * <li>Revenue is a booking's {@link Booking#getAgreedPrice() agreed price} spread evenly over its days, so a report
+ * period cutting through a booking gets its share of the price.</li>
+ * <li>Occupied car-days only count customer bookings; maintenance is reported separately.</li>
+ * <li>Archiving a booking ({@link BookingArchived}) doesn't change the figures - it still happened.</li>
+ * </ul>
+ */
+public interface RentalAnalytics {
+
+    long getOccupiedCarDays(String rentalGroup, DatePeriod period);
+    double getRevenue(String rentalGroup, DatePeriod period);
+    long getMaintenanceDays(String rentalGroup, DatePeriod period);
+
+    /**
+     * Occupied car-days as a fraction of the group's fleet car-days over the period
+     */
+    double getUtilisation(String rentalGroup, DatePeriod period);
+
+    Set<String> getRentalGroups();
+    DatePeriod getWindow();
+}
+
+/**
+ * <p>{@link RentalAnalytics} kept up to date incrementally from {@link RentalEvent}s.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Each rental group has a per-day {@link FenwickTree} for occupied cars, revenue and cars in maintenance, so a
+ * booking change is one O(log days) range-add per tree and a report over any period is one O(log days) range-sum -
+ * no export and re-crunch of {@link CarRentalCompany#getBookingsForPeriod}.</li>
+ * <li>Applied synchronously, inside the company lock (see {@link RentalEventListener}), so reports are never stale.
+ * Reads take a local read lock only.</li>
+ * <li>Fleet size per group only grows (there is no way to remove a car), and utilisation uses today's fleet size
+ * for every day of the period.</li>
+ * </ul>
+ */
+class FenwickRentalAnalytics implements RentalAnalytics, RentalEventListener {
+
+    static FenwickRentalAnalytics attachTo(CarRentalCompany api, DatePeriod window) {
+        FenwickRentalAnalytics analytics = new FenwickRentalAnalytics(window);
+        api.addEventListener(analytics);
+        return analytics;
+    }
+
+    private final DatePeriod window;
+    private final int days;
+
+    // guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, GroupTotals> groups = new HashMap<>();
+
+    public FenwickRentalAnalytics(DatePeriod window) {
+        long length = ChronoUnit.DAYS.between(window.getStart(), window.getEnd()) + 1;
+        assert length <= 100 * 366 : "window too long to hold per-day totals";
+        this.window = window;
+        this.days = (int) length;
+    }
+
+    @Override
+    public void onEvent(RentalEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event instanceof CarAdded e) {
+                totals(e.getCar().getRentalGroup()).cars++;
+            } else if (event instanceof BookingAdded e) {
+                apply(e.getBooking(), 1);
+            } else if (event instanceof BookingCancelled e) {
+                apply(e.getBooking(), -1);
+            } else if (event instanceof BookingMoved e) {
+                apply(e.getOldBooking(), -1);
+                apply(e.getNewBooking(), 1);
+            } else if (event instanceof MaintenanceBooked e) {
+                apply(e.getBooking(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long getOccupiedCarDays(String rentalGroup, DatePeriod period) {
+        return Math.round(sum(rentalGroup, period, t -> t.occupied));
+    }
+
+    @Override
+    public double getRevenue(String rentalGroup, DatePeriod period) {
+        return sum(rentalGroup, period, t -> t.revenue);
+    }
+
+    @Override
+    public long getMaintenanceDays(String rentalGroup, DatePeriod period) {
+        return Math.round(sum(rentalGroup, period, t -> t.maintenance));
+    }
+
+    @Override
+    public double getUtilisation(String rentalGroup, DatePeriod period) {
+        lock.readLock().lock();
+        try {
+            GroupTotals totals = groups.get(rentalGroup);
+            int[] range = DatePeriodUtil.dayOffsetsWithin(window, period);
+            if (totals == null || totals.cars == 0 || range == null) {
+                return 0;
+            }
+            double fleetDays = (double) totals.cars * (range[1] - range[0] + 1);
+            return totals.occupied.sum(range[0], range[1]) / fleetDays;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getRentalGroups() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(groups.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public DatePeriod getWindow() {
+        return window;
+    }
+
+    private double sum(String rentalGroup, DatePeriod period, Function<GroupTotals, FenwickTree> tree) {
+        lock.readLock().lock();
+        try {
+            GroupTotals totals = groups.get(rentalGroup);
+            int[] range = DatePeriodUtil.dayOffsetsWithin(window, period);
+            if (totals == null || range == null) {
+                return 0;
+            }
+            return tree.apply(totals).sum(range[0], range[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Booking booking, int sign) {
+        int[] range = DatePeriodUtil.dayOffsetsWithin(window, booking.getPeriod());
+        if (range == null) {
+            return;
+        }
+        GroupTotals totals = totals(booking.getCar().getRentalGroup());
+        if (booking instanceof MaintenanceBooking) {
+            totals.maintenance.add(range[0], range[1], sign);
+        } else {
+            long bookedDays = ChronoUnit.DAYS.between(booking.getPeriod().getStart(), booking.getPeriod().getEnd()) + 1;
+            totals.occupied.add(range[0], range[1], sign);
+            totals.revenue.add(range[0], range[1], sign * booking.getAgreedPrice() / bookedDays);
+        }
+    }
+
+    private GroupTotals totals(String rentalGroup) {
+        return groups.computeIfAbsent(rentalGroup, g -> new GroupTotals(days));
+    }
+
+    private static class GroupTotals {
+        int cars;
+        final FenwickTree occupied;
+        final FenwickTree revenue;
+        final FenwickTree maintenance;
+
+        GroupTotals(int days) {
+            occupied = new FenwickTree(days);
+            revenue = new FenwickTree(days);
+            maintenance = new FenwickTree(days);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.rental;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Publishes {@link RentalEvent}s from a {@link CarRentalCompany} as a {@link Flow.Publisher}, so consumers can
+ * follow changes incrementally instead of re-scanning bookings.</p>
+ *
+ * <p>Assumptions / Notes:</p>
+ * <ul>
+ * <li>Each subscriber gets its own bounded buffer and receives only as many events as it has requested; a slow
+ * subscriber does not hold up the others.</li>
+ * <li>Events are offered from inside the company lock, so the feed never blocks: if a subscriber's buffer is full the
+ * event is dropped <b>for that subscriber</b> and counted. Sequence numbers are contiguous, so a subscriber can spot the
+ * gap and resync (e.g. from {@link CarRentalCompany#getBookingsForPeriod}).</li>
+ * <li>Subscribers only see changes made after they subscribe.</li>
+ * </ul>
+ */
+class RentalChangeFeed implements Flow.Publisher<RentalEvent>, RentalEventListener, AutoCloseable {
+
+    private final SubmissionPublisher<RentalEvent> publisher;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public RentalChangeFeed() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    public RentalChangeFeed(Executor executor, int maxBufferPerSubscriber) {
+        this.publisher = new SubmissionPublisher<>(executor, maxBufferPerSubscriber);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super RentalEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onEvent(RentalEvent event) {
+        publisher.offer(event, (subscriber, e) -> {
+            dropped.incrementAndGet();
+            return false;
+        });
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
@@ -0,0 +1,32 @@
+package io.rental;
+
+/**
+ * <p>Domain event describing a change to the fleet or the bookings, emitted by {@link CarRentalCompany} after the change
+ * has been applied.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Events are emitted while the company lock is held, so listeners see them in the order they were applied.</li>
+ * <li>The sequence is the company's event counter at the time of the change; the timestamp is {@link System#nanoTime()}
+ * and is only meaningful for measuring elapsed time (e.g. read-model staleness).</li>
+ * </ul>
+ *
+ * @see CarRentalCompany#addEventListener
+ */
+public abstract class RentalEvent {
+    private final long sequence;
+    private final long timestamp;
+
+    public RentalEvent(long sequence) {
+        this.sequence = sequence;
+        this.timestamp = System.nanoTime();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
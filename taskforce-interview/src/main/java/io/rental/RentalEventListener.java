@@ -0,0 +1,9 @@
+package io.rental;
+
+/**
+ * Receives {@link RentalEvent}s. Called while the company lock is held, so must be quick (e.g. hand-off to a queue).
+ */
+@FunctionalInterface
+public interface RentalEventListener {
+    void onEvent(RentalEvent event);
+}
@@ -0,0 +1,286 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.utils.DatePeriod;
+
+/**
+ * Decides which shard a {@link Car} (and so its bookings) lives in.
+ */
+@FunctionalInterface
+interface CarPartitioner {
+
+    String shardOf(Car car);
+
+    /**
+     * One shard per rental group - maintenance swaps stay within a group, so they never cross shards.
+     */
+    static CarPartitioner byRentalGroup() {
+        return Car::getRentalGroup;
+    }
+
+    /**
+     * A fixed number of shards, spread by registration - evens out load when one group dominates.
+     */
+    static CarPartitioner byRegistrationHash(int shards) {
+        assert shards > 0;
+        return car -> String.valueOf(Math.floorMod(car.getRegistrationNumber().hashCode(), shards));
+    }
+}
+
+/**
+ * <p>
+ * {@link BookingRepo} split into independent shards, each an {@link InMemoryBookingRepo} with its own lock
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ol>
+ * <li>Bookings live in the shard of their car, so single-car operations (add, remove, conflict checks) only
+ * lock one shard.</li>
+ * <li>Cross-shard queries (e.g. {@link #getForPeriod}) scatter to every shard under its read lock and gather the
+ * results; the result is not a point-in-time snapshot across shards.</li>
+ * <li>Operations touching two cars ({@link #move}, {@link #maintenanceSwap}) lock the shards involved in key
+ * order, so they can't deadlock with each other.</li>
+ * <li>Unlike {@link InMemoryBookingRepo}, safe to call without the API lock - so the API only serialises writes per
+ * car, not globally (see {@link #isThreadSafe()}).</li>
+ * </ol>
+ */
+class ShardedBookingRepo implements BookingRepo {
+
+    private final CarPartitioner partitioner;
+    private final Supplier<BookingRepo> shardFactory;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    public ShardedBookingRepo(CarPartitioner partitioner) {
+        this(partitioner, InMemoryBookingRepo::new);
+    }
+
+    public ShardedBookingRepo(CarPartitioner partitioner, Supplier<BookingRepo> shardFactory) {
+        this.partitioner = partitioner;
+        this.shardFactory = shardFactory;
+    }
+
+    @Override
+    public List<Booking> getAll() {
+        return gather(BookingRepo::getAll);
+    }
+
+    @Override
+    public List<Booking> getByRegistration(String reg) {
+        return gather(repo -> repo.getByRegistration(reg));
+    }
+
+    @Override
+    public List<Booking> getForPeriod(DatePeriod period) {
+        return gather(repo -> repo.getForPeriod(period));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndCar(DatePeriod period, Car car) {
+        return read(shardFor(car), repo -> repo.getForPeriodAndCar(period, car));
+    }
+
+    @Override
+    public List<Booking> getConflicts(Car car, DatePeriod period) {
+        return read(shardFor(car), repo -> repo.getConflicts(car, period));
+    }
+
+    @Override
+    public List<Booking> getByRenter(String drivingLicenseNumber) {
+        return gather(repo -> repo.getByRenter(drivingLicenseNumber));
+    }
+
+    @Override
+    public List<Booking> getForPeriodAndRenter(DatePeriod period, String drivingLicenseNumber) {
+        return gather(repo -> repo.getForPeriodAndRenter(period, drivingLicenseNumber));
+    }
+
+    @Override
+    public void add(Booking booking) throws Exception {
+        Shard shard = shardFor(booking.getCar());
+        shard.lock.writeLock().lock();
+        try {
+            shard.repo.add(booking);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void maintenanceSwap(MaintenanceBooking booking, Booking customer_old, Booking customer_new) throws Exception {
+        List<Lock> locks = lockAll(booking.getCar(), customer_old.getCar(), customer_new.getCar());
+        try {
+            // each booking goes to its own shard, mirroring InMemoryBookingRepo's steps & rollback
+            try {
+                shardFor(customer_old.getCar()).repo.remove(customer_old);
+                shardFor(customer_new.getCar()).repo.add(customer_new);
+                shardFor(booking.getCar()).repo.add(booking);
+            } catch (Exception e) {
+                shardFor(booking.getCar()).repo.remove(booking);
+                shardFor(customer_new.getCar()).repo.remove(customer_new);
+                shardFor(customer_old.getCar()).repo.remove(customer_old);
+                shardFor(customer_old.getCar()).repo.add(customer_old);
+                throw new Exception("Could not swap customer's booking", e);
+            }
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public boolean remove(Booking booking) throws Exception {
+        Shard shard = shardFor(booking.getCar());
+        shard.lock.writeLock().lock();
+        try {
+            return shard.repo.remove(booking);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The id doesn't say which shard holds the booking, so this asks each in turn
+     */
+    @Override
+    public Optional<Booking> getById(long id) {
+        for (Shard shard : shards.values()) {
+            shard.lock.readLock().lock();
+            try {
+                Optional<Booking> booking = shard.repo.getById(id);
+                if (booking.isPresent()) {
+                    return booking;
+                }
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Booking> removeById(long id) throws Exception {
+        for (Shard shard : shards.values()) {
+            shard.lock.writeLock().lock();
+            try {
+                Optional<Booking> booking = shard.repo.removeById(id);
+                if (booking.isPresent()) {
+                    return booking;
+                }
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void move(Booking booking_old, Booking booking_new) throws Exception {
+        Shard from = shardFor(booking_old.getCar());
+        Shard to = shardFor(booking_new.getCar());
+        if (from == to) {
+            from.lock.writeLock().lock();
+            try {
+                from.repo.move(booking_old, booking_new);
+            } finally {
+                from.lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        List<Lock> locks = lockAll(booking_old.getCar(), booking_new.getCar());
+        try {
+            from.repo.remove(booking_old);
+            try {
+                to.repo.add(booking_new);
+            } catch (Exception x) {
+                from.repo.add(booking_old);
+                throw new Exception("Unable to move booking", x);
+            }
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public void removeAll() throws Exception {
+        for (Shard shard : shards.values()) {
+            shard.lock.writeLock().lock();
+            try {
+                shard.repo.removeAll();
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    int getShardCount() {
+        return shards.size();
+    }
+
+    private Shard shardFor(Car car) {
+        return shards.computeIfAbsent(partitioner.shardOf(car), key -> new Shard(shardFactory.get()));
+    }
+
+    private List<Booking> gather(Function<BookingRepo, List<Booking>> query) {
+        List<Booking> results = new ArrayList<>();
+        for (Shard shard : shards.values()) {
+            results.addAll(read(shard, query));
+        }
+        return results;
+    }
+
+    private static List<Booking> read(Shard shard, Function<BookingRepo, List<Booking>> query) {
+        shard.lock.readLock().lock();
+        try {
+            // copy, as the shard's own lists are only safe to read under its lock
+            return List.copyOf(query.apply(shard.repo));
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private List<Lock> lockAll(Car... cars) {
+        TreeSet<String> keys = new TreeSet<>();
+        for (Car car : cars) {
+            keys.add(partitioner.shardOf(car));
+        }
+        List<Lock> locks = new ArrayList<>();
+        for (String key : keys) {
+            Lock lock = shards.computeIfAbsent(key, k -> new Shard(shardFactory.get())).lock.writeLock();
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    private static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private static class Shard {
+        final BookingRepo repo;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Shard(BookingRepo repo) {
+            this.repo = repo;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.rental;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import io.utils.TopK;
+
+/**
+ * <p>
+ * {@link CarRepo} split into independent shards, each an {@link InMemoryCarRepo} with its own lock
+ * </p>
+ *
+ * <p>
+ * Assumptions / Notes:
+ * </p>
+ * <ul>
+ * <li>Use the same {@link CarPartitioner} as the {@link ShardedBookingRepo} it is paired with.</li>
+ * <li>When partitioned by rental group, a criteria naming a rental group only visits that group's shard.</li>
+ * <li>Blended prices are kept here (running sum & count per group) rather than taken from the shards, as a
+ * registration-hash partition spreads one group over several shards.</li>
+ * <li>Unlike {@link InMemoryCarRepo}, safe to call without the API lock.</li>
+ * <li>A car's group price is published before the car is, so a reader that can see the car can also price it.</li>
+ * </ul>
+ */
+class ShardedCarRepo implements CarRepo {
+
+    private final CarPartitioner partitioner;
+    private final boolean partitionedByGroup;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    private final Map<String, double[]> groupTotals = new HashMap<>(); // group -> {sum, count}, guarded by itself
+    private volatile Map<String, Double> blendedPrices = Map.of();
+
+    private ShardedCarRepo(CarPartitioner partitioner, boolean partitionedByGroup) {
+        this.partitioner = partitioner;
+        this.partitionedByGroup = partitionedByGroup;
+    }
+
+    static ShardedCarRepo byRentalGroup() {
+        return new ShardedCarRepo(CarPartitioner.byRentalGroup(), true);
+    }
+
+    static ShardedCarRepo byRegistrationHash(int shards) {
+        return new ShardedCarRepo(CarPartitioner.byRegistrationHash(shards), false);
+    }
+
+    @Override
+    public List<Car> getAll() {
+        return gather(shards.values(), CarRepo::getAll);
+    }
+
+    @Override
+    public Optional<Car> getByRegistration(String reg) {
+        for (Shard shard : shards.values()) {
+            Optional<Car> car = shard.read(repo -> repo.getByRegistration(reg));
+            if (car.isPresent()) {
+                return car;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Car> getByCriteria(Criteria criteria, MetricsRegistry.Counter scanned) {
+        return gather(shardsFor(criteria), repo -> repo.getByCriteria(criteria, scanned));
+    }
+
+    @Override
+    public List<CarView> getCustomerViewByCriteria(Criteria criteria, MetricsRegistry.Counter scanned) {
+        // cars first: any car found has had its group priced by then
+        List<Car> cars = getByCriteria(criteria, scanned);
+        Map<String, Double> prices = blendedPrices;
+        return cars.stream()
+            .map(c -> CarView.fromCar(c, prices.get(c.getRentalGroup())))
+            .toList();
+    }
+
+    @Override
+    public List<Car> getByPriceRange(double minCostPerDay, double maxCostPerDay) {
+        List<Car> cars = gather(shards.values(), repo -> repo.getByPriceRange(minCostPerDay, maxCostPerDay));
+        cars.sort(Comparator.comparingDouble(Car::getCostPerDay));
+        return cars;
+    }
+
+    @Override
+    public List<Car> getCheapestByCriteria(Criteria criteria, int limit, MetricsRegistry.Counter scanned) {
+        // each shard's cheapest, then the cheapest of those
+        return TopK.smallest(
+            gather(shardsFor(criteria), repo -> repo.getCheapestByCriteria(criteria, limit, scanned)),
+            limit,
+            Comparator.comparingDouble(Car::getCostPerDay));
+    }
+
+    @Override
+    public List<CarView> getCheapestCustomerViewByCriteria(Criteria criteria, int limit,
+            MetricsRegistry.Counter scanned) {
+        return TopK.smallest(
+            getCustomerViewByCriteria(criteria, scanned),
+            limit,
+            Comparator.comparingDouble(CarView::getRentalGroupPrice));
+    }
+
+    @Override
+    public Map<String, Double> getBlendedPrices() {
+        return blendedPrices;
+    }
+
+    @Override
+    public void add(Car car) {
+        synchronized (groupTotals) {
+            double[] totals = groupTotals.computeIfAbsent(car.getRentalGroup(), g -> new double[2]);
+            totals[0] += car.getCostPerDay();
+            totals[1]++;
+            Map<String, Double> newPrices = new HashMap<>(blendedPrices);
+            newPrices.put(car.getRentalGroup(), totals[0] / totals[1]);
+            blendedPrices = newPrices;
+        }
+
+        Shard shard = shards.computeIfAbsent(partitioner.shardOf(car), key -> new Shard());
+        shard.lock.writeLock().lock();
+        try {
+            shard.repo.add(car);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * When partitioned by group, a rental group criteria (possibly AND-ed) picks out a single shard.
+     */
+    private List<Shard> shardsFor(Criteria criteria) {
+        if (partitionedByGroup) {
+            String group = findRentalGroup(criteria);
+            if (group != null) {
+                Shard shard = shards.get(group);
+                return shard == null ? List.of() : List.of(shard);
+            }
+        }
+        return List.copyOf(shards.values());
+    }
+
+    private static String findRentalGroup(Criteria criteria) {
+        if (criteria instanceof RentalGroupCriteria group) {
+            return group.getGroup();
+        }
+        if (criteria instanceof AndCriteria and) {
+            String left = findRentalGroup(and.getLeft());
+            return left != null ? left : findRentalGroup(and.getRight());
+        }
+        return null;
+    }
+
+    private static List<Car> gather(Iterable<Shard> from, Function<CarRepo, List<Car>> query) {
+        List<Car> results = new ArrayList<>();
+        for (Shard shard : from) {
+            // copy while locked, as the shard's own lists are only safe to read under its lock
+            results.addAll(shard.read(repo -> List.copyOf(query.apply(repo))));
+        }
+        return results;
+    }
+
+    private static class Shard {
+        final CarRepo repo = new InMemoryCarRepo();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        <T> T read(Function<CarRepo, T> query) {
+            lock.readLock().lock();
+            try {
+                return query.apply(repo);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
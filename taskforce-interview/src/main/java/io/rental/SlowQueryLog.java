@@ -0,0 +1,75 @@
+package io.rental;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Keeps the most recent {@link QueryTrace}s that took at least the threshold, in a fixed-size ring.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Bounded memory: once full, each slow query overwrites the oldest entry.</li>
+ * <li>Fast queries cost one comparison.</li>
+ * </ul>
+ */
+public class SlowQueryLog {
+
+    private final long thresholdNanos;
+    private final QueryTrace[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder slowCount = new LongAdder();
+    private long written = 0; // guarded by lock
+
+    public SlowQueryLog(Duration threshold, int capacity) {
+        assert capacity > 0;
+        this.thresholdNanos = threshold.toNanos();
+        this.ring = new QueryTrace[capacity];
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    public void offer(QueryTrace trace) {
+        if (!isSlow(trace.getTotalNanos())) {
+            return;
+        }
+        slowCount.increment();
+        lock.lock();
+        try {
+            ring[(int) (written++ % ring.length)] = trace;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Oldest first
+     */
+    public List<QueryTrace> getEntries() {
+        lock.lock();
+        try {
+            List<QueryTrace> entries = new ArrayList<>(ring.length);
+            for (long i = Math.max(0, written - ring.length); i < written; i++) {
+                entries.add(ring[(int) (i % ring.length)]);
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * All slow queries seen, including those since overwritten
+     */
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+}
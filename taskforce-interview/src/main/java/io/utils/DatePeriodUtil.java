@@ -1,6 +1,10 @@
 package io.utils;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 public class DatePeriodUtil {
 
@@ -26,4 +30,134 @@ public class DatePeriodUtil {
                 || date.isEqual(period.getStart())
                 || date.isEqual(period.getEnd());
     }
+
+    /**
+     * Periods of {@code lengthDays} days, starting every {@code stepDays} days from the start of the range, that fit
+     * within it - e.g. (range, 1, 1) is each day of the range.
+     */
+    public static List<DatePeriod> periodsWithin(DatePeriod range, int lengthDays, int stepDays) {
+        assert lengthDays > 0 && stepDays > 0;
+        List<DatePeriod> periods = new ArrayList<>();
+        for (LocalDate start = range.getStart();
+                !start.plusDays(lengthDays - 1).isAfter(range.getEnd());
+                start = start.plusDays(stepDays)) {
+            periods.add(new DatePeriod(start, start.plusDays(lengthDays - 1)));
+        }
+        return periods;
+    }
+
+    /**
+     * The smallest period covering all of the given periods
+     */
+    public static DatePeriod span(List<DatePeriod> periods) {
+        assert !periods.isEmpty();
+        LocalDate start = periods.get(0).getStart();
+        LocalDate end = periods.get(0).getEnd();
+        for (DatePeriod period : periods) {
+            start = period.getStart().isBefore(start) ? period.getStart() : start;
+            end = period.getEnd().isAfter(end) ? period.getEnd() : end;
+        }
+        return new DatePeriod(start, end);
+    }
+
+    /**
+     * The first {@code days}-day period starting on/after {@code from} that overlaps none of the booked periods.
+     * <p>The booked periods must be sorted by start and not overlap each other (e.g. one car's bookings), so they are
+     * sorted by end too: a binary search finds the first one in the way, then only the gaps too short to fit are
+     * walked. Empty when no such period fits before {@link LocalDate#MAX}.</p>
+     */
+    public static Optional<DatePeriod> firstGap(List<DatePeriod> booked, LocalDate from, int days) {
+        assert days > 0;
+        LocalDate start = from;
+        for (int i = firstEndingOnOrAfter(booked, from); i < booked.size(); i++) {
+            DatePeriod next = booked.get(i);
+            if (ChronoUnit.DAYS.between(start, next.getStart()) >= days) {
+                break;
+            }
+            if (next.getEnd().equals(LocalDate.MAX)) {
+                return Optional.empty();
+            }
+            start = next.getEnd().plusDays(1);
+        }
+        if (ChronoUnit.DAYS.between(start, LocalDate.MAX) < days - 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new DatePeriod(start, start.plusDays(days - 1)));
+    }
+
+    /**
+     * The parts of the range not covered by the booked periods (sorted & non-overlapping, as for {@link #firstGap}),
+     * that are at least {@code minDays} long, in date order.
+     */
+    public static List<DatePeriod> gaps(List<DatePeriod> booked, DatePeriod range, int minDays) {
+        assert minDays > 0;
+        List<DatePeriod> gaps = new ArrayList<>();
+        LocalDate start = range.getStart();
+        for (int i = firstEndingOnOrAfter(booked, start); i < booked.size(); i++) {
+            DatePeriod next = booked.get(i);
+            if (next.getStart().isAfter(range.getEnd())) {
+                break;
+            }
+            if (ChronoUnit.DAYS.between(start, next.getStart()) >= minDays) {
+                gaps.add(new DatePeriod(start, next.getStart().minusDays(1)));
+            }
+            if (!next.getEnd().isBefore(range.getEnd())) {
+                return gaps;
+            }
+            start = next.getEnd().plusDays(1);
+        }
+        if (ChronoUnit.DAYS.between(start, range.getEnd()) + 1 >= minDays) {
+            gaps.add(new DatePeriod(start, range.getEnd()));
+        }
+        return gaps;
+    }
+
+    /**
+     * The part of the period inside the window, as inclusive day offsets from the window's start (e.g. slots of a
+     * per-day {@link FenwickTree} over the window) - or null when it's entirely outside.
+     */
+    public static int[] dayOffsetsWithin(DatePeriod window, DatePeriod period) {
+        if (period.getEnd().isBefore(window.getStart()) || period.getStart().isAfter(window.getEnd())) {
+            return null;
+        }
+        LocalDate start = period.getStart().isBefore(window.getStart()) ? window.getStart() : period.getStart();
+        LocalDate end = period.getEnd().isAfter(window.getEnd()) ? window.getEnd() : period.getEnd();
+        return new int[] {
+            (int) ChronoUnit.DAYS.between(window.getStart(), start),
+            (int) ChronoUnit.DAYS.between(window.getStart(), end) };
+    }
+
+    /**
+     * Index of the first of the (sorted, non-overlapping) periods that ends on/after the day, or the size when none do
+     */
+    public static int firstEndingOnOrAfter(List<DatePeriod> periods, LocalDate day) {
+        int low = 0;
+        int high = periods.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (periods.get(mid).getEnd().isBefore(day)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * {@link #firstEndingOnOrAfter(List, LocalDate)} over the periods' (sorted) end days, e.g. epoch days
+     */
+    public static int firstEndingOnOrAfter(int[] ends, int day) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
 }
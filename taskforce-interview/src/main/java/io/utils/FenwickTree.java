@@ -0,0 +1,76 @@
+package io.utils;
+
+/**
+ * <p>Fenwick (binary indexed) tree over a fixed number of slots, supporting range-add and range-sum in O(log n).</p>
+ *
+ * <p>Notes</p>
+ * <ul>
+ * <li>Two trees are kept, so that adding to a whole range is as cheap as adding to a single slot; the prefix sum
+ * up to {@code i} is {@code prefix(b1, i) * i - prefix(b2, i)}.</li>
+ * <li>Slots are 0-based and ranges inclusive, like {@link DatePeriod}.</li>
+ * <li>Doubles throughout; counts stay exact up to 2^53.</li>
+ * <li>Not thread-safe.</li>
+ * </ul>
+ */
+public class FenwickTree {
+
+    private final double[] b1;
+    private final double[] b2;
+
+    public FenwickTree(int size) {
+        b1 = new double[size + 1];
+        b2 = new double[size + 1];
+    }
+
+    public int size() {
+        return b1.length - 1;
+    }
+
+    /**
+     * Adds {@code delta} to every slot in {@code [from, to]}
+     */
+    public void add(int from, int to, double delta) {
+        assert 0 <= from && from <= to && to < size();
+        update(from + 1, delta, delta * from);
+        update(to + 2, -delta, -delta * (to + 1));
+    }
+
+    public void add(int slot, double delta) {
+        add(slot, slot, delta);
+    }
+
+    /**
+     * Sum of the slots in {@code [from, to]}
+     */
+    public double sum(int from, int to) {
+        assert 0 <= from && from <= to && to < size();
+        return prefixSum(to) - (from == 0 ? 0 : prefixSum(from - 1));
+    }
+
+    public double get(int slot) {
+        return sum(slot, slot);
+    }
+
+    /**
+     * Sum of the slots in {@code [0, slot]}
+     */
+    public double prefixSum(int slot) {
+        int i = slot + 1;
+        return query(b1, i) * i - query(b2, i);
+    }
+
+    private void update(int i, double d1, double d2) {
+        for (; i < b1.length; i += i & -i) {
+            b1[i] += d1;
+            b2[i] += d2;
+        }
+    }
+
+    private static double query(double[] tree, int i) {
+        double sum = 0;
+        for (; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,223 @@
+package io.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Hashed timing wheel (Varghese &amp; Lauck): timeouts are hashed by their deadline tick into a ring of buckets,
+ * and each tick only visits its own bucket - so scheduling and cancelling are O(1), and expiry costs the timeouts
+ * due (plus those a whole number of laps out sharing the bucket), never a scan of everything pending.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>{@link #schedule} and {@link Timeout#cancel()} are lock-free (a concurrent queue and a CAS), so callers
+ * never wait on the ticking thread. Only {@link #advance} touches the buckets.</li>
+ * <li>Resolution is one tick: a timeout fires on the first tick at or after its deadline, so up to a tick late.</li>
+ * <li>Cancelled timeouts are dropped when their bucket next comes round.</li>
+ * <li>Driven either by calling {@link #advance} (e.g. with a fake clock in tests) or by one ticker thread from
+ * {@link #start}, until {@link #stop}.</li>
+ * <li>The batch forms ({@link #advanceBatch}, {@link #startBatched}) hand over all the tasks a run found due in one
+ * list, so a consumer that needs a lock per expiry can take it once per run instead.</li>
+ * </ul>
+ */
+public class HashedTimerWheel<T> {
+
+    public static final class Timeout<T> {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        @SuppressWarnings("rawtypes") // a class literal can't name Timeout<T>, so neither can its updater
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final T task;
+        private final long deadline; // nanos, on the wheel's clock
+        private final long deadlineTick;
+        private volatile int state = PENDING;
+        private long rounds; // laps of the wheel still to go - ticking thread only
+
+        private Timeout(T task, long deadline, long deadlineTick) {
+            this.task = task;
+            this.deadline = deadline;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * @return false when it has already expired (or been cancelled)
+         */
+        public boolean cancel() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    private final long tickNanos;
+    private final List<List<Timeout<T>>> wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startedAt;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private long tick = 0; // next tick to process, guarded by advanceLock
+    private volatile Thread ticker;
+
+    public HashedTimerWheel(Duration tick, int buckets) {
+        this(tick, buckets, System::nanoTime);
+    }
+
+    /**
+     * @param buckets rounded up to a power of two
+     * @param clock nanosecond clock (e.g. {@code System::nanoTime})
+     */
+    public HashedTimerWheel(Duration tick, int buckets, LongSupplier clock) {
+        assert !tick.isNegative() && !tick.isZero() && buckets > 0;
+        int size = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.tickNanos = tick.toNanos();
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.mask = size - 1;
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+    }
+
+    /**
+     * The wheel's clock, in nanos - deadlines are on this scale
+     */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public Timeout<T> schedule(T task, Duration delay) {
+        long deadline = now() + delay.toNanos();
+        long elapsed = deadline - startedAt;
+        // rounded up, so it never fires before the deadline
+        Timeout<T> timeout = new Timeout<>(task, deadline, Math.max(0, (elapsed + tickNanos - 1) / tickNanos));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes every tick up to now, passing each task that's due to the consumer (on this thread)
+     * @return the number expired
+     */
+    public int advance(Consumer<? super T> onExpiry) {
+        return advanceBatch(due -> due.forEach(onExpiry));
+    }
+
+    /**
+     * {@link #advance}, passing the tasks that are due to the consumer in one list - not called when none are
+     * @return the number expired
+     */
+    public int advanceBatch(Consumer<? super List<T>> onExpiry) {
+        List<T> due = new ArrayList<>();
+        advanceLock.lock();
+        try {
+            long dueTick = (now() - startedAt) / tickNanos;
+            while (tick <= dueTick) {
+                transferScheduled();
+                expireBucket(wheel.get((int) (tick & mask)), due);
+                tick++;
+            }
+            // still under the lock, so one run's expiries are handed over before the next run's
+            if (!due.isEmpty()) {
+                onExpiry.accept(due);
+            }
+            return due.size();
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a daemon thread calling {@link #advance} once a tick
+     */
+    public void start(String name, Consumer<? super T> onExpiry) {
+        startBatched(name, due -> due.forEach(onExpiry));
+    }
+
+    /**
+     * Starts a daemon thread calling {@link #advanceBatch} once a tick
+     */
+    public synchronized void startBatched(String name, Consumer<? super List<T>> onExpiry) {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Thread.ofPlatform().daemon().name(name).start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(Duration.ofNanos(tickNanos));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                advanceBatch(onExpiry);
+            }
+        });
+    }
+
+    /**
+     * Stops the ticker thread, if started; pending timeouts stay scheduled, for {@link #advance}
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker = null;
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long at = Math.max(timeout.deadlineTick, tick); // overdue ones go in this tick's bucket
+            timeout.rounds = (at - tick) / wheel.size();
+            wheel.get((int) (at & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(List<Timeout<T>> bucket, List<T> due) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout<T> timeout = bucket.get(i);
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+                continue;
+            }
+            if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                due.add(timeout.task);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+}
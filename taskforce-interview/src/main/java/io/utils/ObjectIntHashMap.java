@@ -0,0 +1,115 @@
+package io.utils;
+
+import java.util.Arrays;
+
+/**
+ * <p>Hash map from object keys to primitive {@code int} values - no boxing of values, no entry objects.</p>
+ *
+ * <p>Notes</p>
+ * <ul>
+ * <li>Open addressing with linear probing, on the keys' own {@link Object#hashCode()} (spread, as e.g. short strings
+ * differ mostly in the low bits).</li>
+ * <li>Insert & update only - no removal, which is all that interning needs.</li>
+ * <li>Null keys aren't allowed. Absent keys read as the caller's default.</li>
+ * <li>Not thread-safe.</li>
+ * </ul>
+ */
+public class ObjectIntHashMap<K> {
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    public ObjectIntHashMap() {
+        this(16);
+    }
+
+    public ObjectIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * @return the key's value, or {@code missing} when it has none
+     */
+    public int get(K key, int missing) {
+        int slot = find(key);
+        return slot < 0 ? missing : values[slot];
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    public void put(K key, int value) {
+        assert key != null;
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private int find(K key) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9; // Fibonacci hashing, then fold the high bits down
+        return h ^ (h >>> 16);
+    }
+}
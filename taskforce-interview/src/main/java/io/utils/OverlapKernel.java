@@ -0,0 +1,97 @@
+package io.utils;
+
+import java.time.LocalDate;
+
+/**
+ * <p>Bulk overlap check over packed (inclusive) start/end epoch-day arrays - the array equivalent of calling
+ * {@link DatePeriodUtil#areOverlapping} once per period.</p>
+ *
+ * <p>Notes</p>
+ * <ul>
+ * <li>Matches are written as a bit mask, one bit per lane (bit {@code i % 64} of {@code mask[i / 64]}), so callers
+ * only touch the periods that matched.</li>
+ * <li>Epoch days are clamped to the int range (see {@link #toDay}), which only affects dates millions of years out,
+ * e.g. {@link DatePeriod#ALL_TIME}.</li>
+ * <li>{@link #best()} uses the SIMD kernel when the {@code jdk.incubator.vector} module is present, else the scalar loop.</li>
+ * </ul>
+ */
+public interface OverlapKernel {
+
+    /**
+     * @param starts period starts, as {@link #toDay} values
+     * @param ends period ends, as {@link #toDay} values
+     * @param count number of periods in the arrays to check
+     * @param queryStart start of the period to check against
+     * @param queryEnd end of the period to check against
+     * @param mask receives a set bit for each overlapping period; must hold at least {@code count} bits, and start clear
+     * @return number of overlapping periods
+     */
+    int scan(int[] starts, int[] ends, int count, int queryStart, int queryEnd, long[] mask);
+
+    String name();
+
+    static int toDay(LocalDate date) {
+        long day = date.toEpochDay();
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, day));
+    }
+
+    static long[] newMask(int count) {
+        return new long[(count + 63) >>> 6];
+    }
+
+    static OverlapKernel best() {
+        return Kernels.BEST;
+    }
+
+    static OverlapKernel scalar() {
+        return Kernels.SCALAR;
+    }
+}
+
+/**
+ * Picks the kernel once, at first use.
+ */
+class Kernels {
+
+    static final OverlapKernel SCALAR = new ScalarOverlapKernel();
+    static final OverlapKernel BEST = load();
+
+    private static OverlapKernel load() {
+        if (Boolean.getBoolean("io.utils.overlap.scalar")) {
+            return SCALAR;
+        }
+        try {
+            // Reflective, so that running without --add-modules jdk.incubator.vector just falls back to the loop
+            return (OverlapKernel) Class.forName("io.utils.VectorOverlapKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
+
+/**
+ * The plain loop, also used for the tail of the vector kernel.
+ */
+class ScalarOverlapKernel implements OverlapKernel {
+
+    @Override
+    public int scan(int[] starts, int[] ends, int count, int queryStart, int queryEnd, long[] mask) {
+        return scan(starts, ends, 0, count, queryStart, queryEnd, mask);
+    }
+
+    static int scan(int[] starts, int[] ends, int from, int to, int queryStart, int queryEnd, long[] mask) {
+        int matches = 0;
+        for (int i = from; i < to; i++) {
+            if (starts[i] <= queryEnd && ends[i] >= queryStart) {
+                mask[i >>> 6] |= 1L << i;
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
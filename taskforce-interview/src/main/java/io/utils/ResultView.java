@@ -0,0 +1,89 @@
+package io.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>A query result that is worked out as it is iterated, rather than collected into a list up front - so nothing
+ * is built that the caller doesn't use, and "is there any?" / "the first few" stop as soon as they have the answer.</p>
+ *
+ * <p>Assumptions/Notes</p>
+ * <ul>
+ * <li>Live, not a copy: each iteration reads the underlying index as it is at the time. A view over a repo is only
+ * valid until that repo's next write - so, like the repos themselves, for use under the company lock.</li>
+ * <li>{@link #snapshot()} (or {@link #toList()}) copies the results out, for keeping after that.</li>
+ * <li>{@link #filter} & {@link #map} are lazy too, so a chain of them still builds nothing.</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface ResultView<T> extends Iterable<T> {
+
+    static <T> ResultView<T> of(List<T> list) {
+        return list::iterator;
+    }
+
+    static <T> ResultView<T> empty() {
+        return Collections::emptyIterator;
+    }
+
+    default boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    default Optional<T> first() {
+        Iterator<T> results = iterator();
+        return results.hasNext() ? Optional.of(results.next()) : Optional.empty();
+    }
+
+    /**
+     * Up to the first n results, in iteration order
+     */
+    default List<T> first(int n) {
+        List<T> first = new ArrayList<>(Math.min(n, 16));
+        Iterator<T> results = iterator();
+        while (first.size() < n && results.hasNext()) {
+            first.add(results.next());
+        }
+        return first;
+    }
+
+    default int count() {
+        int count = 0;
+        for (Iterator<T> results = iterator(); results.hasNext(); results.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    default List<T> toList() {
+        List<T> all = new ArrayList<>();
+        forEach(all::add);
+        return all;
+    }
+
+    /**
+     * The results as they are now, unaffected by later writes
+     */
+    default ResultView<T> snapshot() {
+        return of(Collections.unmodifiableList(toList()));
+    }
+
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default ResultView<T> filter(Predicate<? super T> predicate) {
+        return () -> stream().filter(predicate).iterator();
+    }
+
+    default <R> ResultView<R> map(Function<? super T, ? extends R> mapper) {
+        return () -> stream().<R>map(mapper).iterator();
+    }
+}
@@ -0,0 +1,41 @@
+package io.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class TopK {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Select the {@code k} smallest items using a bounded max-heap, i.e. O(n log k) rather than a full sort.
+     * @param items candidates, consumed once
+     * @param k maximum number of items to return
+     * @param comparator ordering, smallest first
+     * @return at most k items, in ascending order
+     */
+    public static <T> List<T> smallest(Iterable<T> items, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return List.of();
+        }
+
+        // k may be "no limit" (e.g. Integer.MAX_VALUE), so the heap grows as needed rather than being sized for k
+        int capacity = items instanceof Collection<?> collection ? collection.size() : INITIAL_CAPACITY;
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.max(1, Math.min(k, capacity)), comparator.reversed());
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (comparator.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+
+        List<T> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
+    }
+}
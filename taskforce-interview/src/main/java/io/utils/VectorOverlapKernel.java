@@ -0,0 +1,48 @@
+package io.utils;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>SIMD {@link OverlapKernel} using the (incubating) Vector API: compares a full vector of starts & ends per step.</p>
+ *
+ * <p>Notes</p>
+ * <ul>
+ * <li>Needs {@code --add-modules jdk.incubator.vector} at runtime; only ever loaded via {@link OverlapKernel#best()},
+ * which falls back to the scalar loop without it.</li>
+ * <li>The lane count is a power of two no larger than 64, so a vector's matches never straddle two mask words.</li>
+ * </ul>
+ */
+class VectorOverlapKernel implements OverlapKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int scan(int[] starts, int[] ends, int count, int queryStart, int queryEnd, long[] mask) {
+        int lanes = SPECIES.length();
+        int upper = SPECIES.loopBound(count);
+        int matches = 0;
+
+        for (int i = 0; i < upper; i += lanes) {
+            IntVector s = IntVector.fromArray(SPECIES, starts, i);
+            IntVector e = IntVector.fromArray(SPECIES, ends, i);
+            VectorMask<Integer> overlapping = s.compare(VectorOperators.LE, queryEnd)
+                .and(e.compare(VectorOperators.GE, queryStart));
+
+            long bits = overlapping.toLong();
+            if (bits != 0) {
+                mask[i >>> 6] |= bits << (i & 63);
+                matches += Long.bitCount(bits);
+            }
+        }
+
+        return matches + ScalarOverlapKernel.scan(starts, ends, upper, count, queryStart, queryEnd, mask);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x32";
+    }
+}
@@ -0,0 +1,78 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncCarRentalTest {
+
+    @Test
+    public void searchesCompleteAsynchronously() throws Exception {
+        try (AsyncCarRentalCompany api = new VirtualThreadCarRentalCompany(TestCarCompanyBuilder.create().withCars().build())) {
+
+            List<Car> cars = api.getMatchingCars(MakeCriteria.of("VW")).get();
+
+            assertThat(cars.size()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void conflictingBookingCompletesExceptionally() throws Exception {
+        try (AsyncCarRentalCompany api = new VirtualThreadCarRentalCompany(TestCarCompanyBuilder.create().withCars().build())) {
+
+            api.bookCar(MINI_COOPER_C1_170, RENTER_GRETA, THIS_WEEK_AND_NEXT, 100).get();
+            CompletableFuture<Booking> joes = api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+
+            assertThrows(ExecutionException.class, () -> joes.get());
+        }
+    }
+
+    @Test
+    public void manyConcurrentRequestsAllComplete() throws Exception {
+        try (AsyncCarRentalCompany api = new VirtualThreadCarRentalCompany(TestCarCompanyBuilder.create().withCars().build(), 4)) {
+
+            List<CompletableFuture<List<Car>>> searches = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                searches.add(api.getAvailableCars(Criteria.ALL, THIS_WEEK));
+            }
+            CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).get();
+
+            assertTrue(searches.stream().allMatch(f -> f.join().size() == 5));
+        }
+    }
+
+    @Test
+    public void errorInTheCallCompletesExceptionally() throws Exception {
+        CarRentalCompany company = TestCarCompanyBuilder.create().withCars().build();
+        CarRentalCompany failing = (CarRentalCompany) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { CarRentalCompany.class }, (proxy, method, args) -> {
+                if (method.getName().equals("getMatchingCars")) {
+                    throw new StackOverflowError();
+                }
+                try {
+                    return method.invoke(company, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        try (AsyncCarRentalCompany api = new VirtualThreadCarRentalCompany(failing)) {
+
+            CompletableFuture<List<Car>> cars = api.getMatchingCars(MakeCriteria.of("VW"));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> cars.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof StackOverflowError);
+            assertThat(api.getAvailableCars(Criteria.ALL, THIS_WEEK).get().size()).isEqualTo(5);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+
+public class AvailabilityHeatmapTest {
+
+    private static final DatePeriod FEB_MAR = new DatePeriod(LocalDate.of(2024, 02, 01), LocalDate.of(2024, 03, 31));
+
+    @Test
+    public void perDayCountsMatchAvailabilityQueries() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(
+                new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100),
+                new Booking(MINI_COOPER_C1_170, RENTER_SAM, THIS_WEEK_AND_NEXT, 100)
+            )
+            .build();
+        AvailabilityHeatmap heatmap = OccupancyIndex.attachTo(api, FEB_MAR);
+        Booking maisys = api.bookCar(VW_POLO_A1_70, RENTER_MAISY, NEXT_WEEK, 100);
+        api.bookMaintenance("Service", VW_PASSAT_C1_110, LAST_WEEK);
+        api.cancelBooking(maisys.getId());
+
+        DatePeriod range = new DatePeriod(LAST_WEEK.getStart(), NEXT_WEEK.getEnd());
+        Map<String, int[]> map = heatmap.getHeatmap(range);
+        int day = 0;
+        for (DatePeriod oneDay : DatePeriodUtil.periodsWithin(range, 1, 1)) {
+            for (String group : map.keySet()) {
+                int expected = api.getAvailableCars(RentalGroupCriteria.of(group), oneDay).size();
+                assertThat(map.get(group)[day]).isEqualTo(expected);
+            }
+            day++;
+        }
+        assertThat(heatmap.getFreeCarCount("A1", THIS_WEEK.getStart())).isEqualTo(1);
+        assertThat(heatmap.getFreeCarCounts("C1", NEXT_WEEK)[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void daysOutsideTheWindowAreRejected() {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+        AvailabilityHeatmap heatmap = OccupancyIndex.attachTo(api, FEB_MAR);
+
+        assertThrows(IllegalArgumentException.class, () -> heatmap.getFreeCarCount("A1", LocalDate.of(2024, 04, 01)));
+    }
+}
@@ -0,0 +1,53 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+
+public class BatchAvailabilityTest {
+
+    @Test
+    public void batchAgreesWithOneQueryPerPeriod() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(
+                new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100),
+                new Booking(MINI_COOPER_C1_170, RENTER_SAM, THIS_WEEK_AND_NEXT, 100),
+                new Booking(VW_POLO_A1_70, RENTER_MAISY, LAST_WEEK, 100)
+            )
+            .build();
+        Criteria vw = MakeCriteria.of("VW");
+        List<DatePeriod> days = DatePeriodUtil.periodsWithin(
+            new DatePeriod(LAST_WEEK.getStart().minusDays(2), NEXT_WEEK.getEnd().plusDays(2)), 1, 1);
+        List<DatePeriod> periods = new ArrayList<>(days);
+        periods.add(THIS_WEEK_AND_NEXT);
+
+        List<List<Car>> batch = api.getAvailableCars(vw, periods);
+        List<Integer> counts = api.countAvailableCars(Criteria.ALL, periods);
+
+        assertThat(batch.size()).isEqualTo(periods.size());
+        for (int i = 0; i < periods.size(); i++) {
+            List<Car> single = api.getAvailableCars(vw, periods.get(i));
+            assertThat(batch.get(i).size()).isEqualTo(single.size());
+            assertTrue(batch.get(i).containsAll(single));
+            assertThat(counts.get(i)).isEqualTo(api.getAvailableCars(periods.get(i)).size());
+        }
+    }
+
+    @Test
+    public void noPeriodsNoResults() {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+
+        assertThat(api.getAvailableCars(Criteria.ALL, List.of()).size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,148 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class BookingCommandQueueTest {
+
+    @Test
+    public void callerReadsOwnWrite() throws Exception {
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(TestCarCompanyBuilder.create().withCars().build())) {
+
+            Booking booking = queue.bookCar(MINI_COOPER_C1_170, RENTER_GRETA, THIS_WEEK, 100).get();
+
+            assertTrue(queue.getBookingsForPeriod(THIS_WEEK).contains(booking));
+            assertThat(queue.getPublishedVersion()).isGreaterThan(0L);
+        }
+    }
+
+    @Test
+    public void conflictFailsOnlyThatCommand() throws Exception {
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(TestCarCompanyBuilder.create().withCars().build())) {
+
+            CompletableFuture<Booking> gretas = queue.bookCar(MINI_COOPER_C1_170, RENTER_GRETA, THIS_WEEK_AND_NEXT, 100);
+            CompletableFuture<Booking> joes = queue.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+            CompletableFuture<Booking> sams = queue.bookCar(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 100);
+
+            gretas.get();
+            sams.get();
+            assertThrows(ExecutionException.class, () -> joes.get());
+            assertThat(queue.getBookingsForPeriod(THIS_WEEK).size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void concurrentBookingsAreAllApplied() throws Exception {
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(TestCarCompanyBuilder.create().withCars().build(), 16, 8)) {
+
+            List<CompletableFuture<Booking>> bookings = new ArrayList<>();
+            LocalDate start = LocalDate.of(2024, 1, 1);
+            for (int day = 0; day < 500; day++) {
+                DatePeriod period = new DatePeriod(start.plusDays(day), start.plusDays(day));
+                bookings.add(queue.bookCar(VW_GOLF_B2_90, RENTER_JOE, period, 100));
+            }
+            CompletableFuture.allOf(bookings.toArray(CompletableFuture[]::new)).get();
+
+            assertThat(queue.getBookingsForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(500);
+        }
+    }
+
+    @Test
+    public void closedQueueRejectsCommands() {
+        BookingCommandQueue queue = new SingleWriterBookingCommandQueue(TestCarCompanyBuilder.create().withCars().build());
+        queue.close();
+
+        assertThrows(ExecutionException.class, () -> queue.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100).get());
+    }
+
+    @Test
+    public void errorInOneCommandLeavesTheWriterRunning() throws Exception {
+        CarRentalCompany company = TestCarCompanyBuilder.create().withCars().build();
+        CarRentalCompany api = (CarRentalCompany) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { CarRentalCompany.class }, (proxy, method, args) -> {
+                if (args != null && args.length > 1 && args[1] == RENTER_JOE) {
+                    throw new StackOverflowError();
+                }
+                try {
+                    return method.invoke(company, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(api)) {
+
+            CompletableFuture<Booking> broken = queue.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+            Booking booking = queue.bookCar(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 100).get(5, TimeUnit.SECONDS);
+
+            assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS));
+            assertTrue(queue.getBookingsForPeriod(THIS_WEEK).contains(booking));
+        }
+    }
+
+    @Test
+    public void closeCompletesEveryFuture() throws Exception {
+        BookingCommandQueue queue = new SingleWriterBookingCommandQueue(TestCarCompanyBuilder.create().withCars().build(), 4, 2);
+        List<CompletableFuture<Booking>> bookings = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int p = 0; p < 4; p++) {
+            int offset = p * 1000;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int day = 0; day < 200; day++) {
+                    DatePeriod period = new DatePeriod(start.plusDays(offset + day), start.plusDays(offset + day));
+                    CompletableFuture<Booking> booking = queue.bookCar(VW_GOLF_B2_90, RENTER_JOE, period, 100);
+                    synchronized (bookings) {
+                        bookings.add(booking);
+                    }
+                }
+            }));
+        }
+        Thread.sleep(5);
+        queue.close();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        synchronized (bookings) {
+            assertThat(bookings.size()).isEqualTo(800);
+            for (CompletableFuture<Booking> booking : bookings) {
+                // applied, or rejected - never left hanging
+                assertTrue(booking.handle((b, e) -> true).get(5, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    public void snapshotFollowsDirectWritesAndLongBookings() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create().withCars().build();
+        Booking before = api.bookCar(VW_GOLF_B2_90, RENTER_JOE, LAST_WEEK, 100);
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(api)) {
+            assertTrue(queue.getBookingsForPeriod(LAST_WEEK).contains(before));
+
+            api.bookMaintenance("refit", VW_PASSAT_C1_110, new DatePeriod(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 6, 30)));
+            Booking booked = queue.bookCar(MINI_COOPER_C1_170, RENTER_GRETA, THIS_WEEK, 100).get();
+            queue.cancelBooking(before.getId()).get();
+
+            List<Booking> thisWeek = queue.getBookingsForPeriod(THIS_WEEK);
+            assertThat(thisWeek.size()).isEqualTo(2);
+            assertTrue(thisWeek.contains(booked));
+            assertThat(queue.getBookingsForPeriod(LAST_WEEK).size()).isEqualTo(1);
+            assertThat(queue.getBookingsForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(2);
+        }
+    }
+}
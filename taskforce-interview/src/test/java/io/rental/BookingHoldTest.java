@@ -0,0 +1,179 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.HashedTimerWheel;
+
+public class BookingHoldTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CarRentalCompanyImpl company() {
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl();
+        api.setHoldTimer(new HashedTimerWheel<>(CarRentalCompanyImpl.HOLD_TICK, 16, clock::get));
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        return api;
+    }
+
+    @Test
+    public void holdBlocksTheCarLikeABooking() throws Exception {
+        CarRentalCompanyImpl api = company();
+
+        api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        assertThrows(Exception.class, () -> api.bookCar(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK_AND_NEXT, 900));
+        assertThrows(Exception.class, () -> api.holdCar(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 500, Duration.ofMinutes(10)));
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void confirmSwapsTheHoldForABooking() throws Exception {
+        CarRentalCompanyImpl api = company();
+        List<RentalEvent> events = new ArrayList<>();
+        api.addEventListener(events::add);
+        Booking hold = api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+        int replayed = events.size();
+
+        Booking booking = api.confirmHold(hold.getId());
+
+        assertThat(api.getBooking(hold.getId()).isPresent()).isFalse();
+        assertThat(api.getBooking(booking.getId()).get()).isEqualTo(booking);
+        assertThat(booking.getAgreedPrice()).isEqualTo(500.0);
+        assertThat(events.size()).isEqualTo(replayed + 1);
+        assertThat(events.get(replayed) instanceof BookingAdded).isTrue();
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(1);
+
+        // the timer no longer has anything to do with it
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        assertThat(api.expireHolds()).isEqualTo(0);
+        assertThat(api.getBooking(booking.getId()).isPresent()).isTrue();
+    }
+
+    @Test
+    public void expiredHoldsFreeTheCarAndCantBeConfirmed() throws Exception {
+        CarRentalCompanyImpl api = company();
+        Booking hold = api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos() - SECOND);
+        assertThat(api.expireHolds()).isEqualTo(0);
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(1);
+
+        clock.addAndGet(SECOND);
+        assertThat(api.expireHolds()).isEqualTo(1);
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(2);
+        assertThrows(Exception.class, () -> api.confirmHold(hold.getId()));
+    }
+
+    @Test
+    public void holdPastItsDeadlineCantBeConfirmedBeforeTheTimerRuns() throws Exception {
+        CarRentalCompanyImpl api = company();
+        Booking hold = api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertThrows(Exception.class, () -> api.confirmHold(hold.getId()));
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(2);
+    }
+
+    @Test
+    public void releasedAndBumpedHoldsAreGone() throws Exception {
+        CarRentalCompanyImpl api = company();
+        Booking released = api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+        Booking bumped = api.holdCar(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        assertThat(api.releaseHold(released.getId())).isTrue();
+        assertThat(api.releaseHold(released.getId())).isFalse();
+        List<MaintenanceResult> results = api.bookMaintenance("Service", VW_POLO_A1_65, THIS_WEEK);
+
+        assertThat(results.size()).isEqualTo(0);
+        assertThrows(Exception.class, () -> api.confirmHold(bumped.getId()));
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        assertThat(api.expireHolds()).isEqualTo(0);
+    }
+
+    @Test
+    public void holdsDueTogetherExpireTogether() throws Exception {
+        CarRentalCompanyImpl api = company();
+        api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+        api.holdCar(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 500, Duration.ofMinutes(5));
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertThat(api.expireHolds()).isEqualTo(2);
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(2);
+    }
+
+    @Test
+    public void bookingReadsLeaveHoldsOut() throws Exception {
+        CarRentalCompanyImpl api = company();
+        Booking booking = api.bookCar(VW_POLO_A1_65, RENTER_JOE, NEXT_WEEK, 400);
+        Booking hold = api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        assertThat(api.getBooking(hold.getId()).isPresent()).isFalse();
+        assertThat(api.getBookingsForPeriod(THIS_WEEK_AND_NEXT)).isEqualTo(List.of(booking));
+        assertThat(api.getBookingsForRenter(RENTER_JOE.getDrivingLicenseNumber())).isEqualTo(List.of(booking));
+        assertThat(api.getBookingsForRenter(RENTER_JOE.getDrivingLicenseNumber(), THIS_WEEK).size()).isEqualTo(0);
+        assertThat(api.hasBookingDuring(RENTER_JOE.getDrivingLicenseNumber(), THIS_WEEK)).isFalse();
+        assertThat(api.hasBookingDuring(RENTER_JOE.getDrivingLicenseNumber(), NEXT_WEEK)).isTrue();
+
+        Booking confirmed = api.confirmHold(hold.getId());
+        assertThat(api.hasBookingDuring(RENTER_JOE.getDrivingLicenseNumber(), THIS_WEEK)).isTrue();
+        assertThat(api.getBooking(confirmed.getId()).get()).isEqualTo(confirmed);
+    }
+
+    @Test
+    public void holdThatFailsToExpireIsRetriedNextTick() throws Exception {
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl(new InMemoryBookingRepo() {
+            @Override
+            public Optional<Booking> removeById(long id) {
+                if (failNext.getAndSet(false)) {
+                    throw new IllegalStateException("Unavailable");
+                }
+                return super.removeById(id);
+            }
+        }, new InMemoryCarRepo());
+        api.setHoldTimer(new HashedTimerWheel<>(CarRentalCompanyImpl.HOLD_TICK, 16, clock::get));
+        api.addCar(VW_GOLF_B2_90);
+        api.holdCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 500, Duration.ofMinutes(10));
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertThat(api.expireHolds()).isEqualTo(1);
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(0);
+
+        clock.addAndGet(SECOND);
+        assertThat(api.expireHolds()).isEqualTo(1);
+        assertThat(api.getAvailableCars(THIS_WEEK).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void closeStopsTheHoldTimer() throws Exception {
+        AtomicBoolean stopped = new AtomicBoolean();
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl();
+        api.setHoldTimer(new HashedTimerWheel<>(CarRentalCompanyImpl.HOLD_TICK, 16, clock::get) {
+            @Override
+            public synchronized void stop() {
+                stopped.set(true);
+                super.stop();
+            }
+        });
+
+        api.close();
+
+        assertThat(stopped.get()).isTrue();
+    }
+}
@@ -0,0 +1,112 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class BookingReplicationTest {
+
+    @Test
+    public void followerServesLeadersBookings() throws Exception {
+        ReplicationTransport transport = new LoopbackReplicationTransport();
+        LeaderBookingRepo leader = new LeaderBookingRepo(transport);
+        FollowerBookingRepo follower = new FollowerBookingRepo(transport);
+
+        CarRentalCompany api = companyOn(leader);
+        api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+        api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+        CarRentalCompany readOnly = companyOn(follower);
+        List<Booking> bookings = readOnly.getBookingsForPeriod(THIS_WEEK);
+
+        assertThat(bookings.size()).isEqualTo(2);
+        assertTrue(bookings.contains(new Booking(VW_PASSAT_C1_110, RENTER_JOE, THIS_WEEK, 100)));
+        assertThat(follower.getLag(leader.getSequence())).isEqualTo(0L);
+    }
+
+    @Test
+    public void followerRefusesBookings() {
+        ReplicationTransport transport = new LoopbackReplicationTransport();
+        new LeaderBookingRepo(transport);
+        FollowerBookingRepo follower = new FollowerBookingRepo(transport);
+
+        CarRentalCompany readOnly = companyOn(follower);
+
+        assertThrows(Exception.class, () -> readOnly.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+    }
+
+    @Test
+    public void lateFollowerCatchesUpFromTheLog() throws Exception {
+        ReplicationTransport transport = new LoopbackReplicationTransport();
+        LeaderBookingRepo leader = new LeaderBookingRepo(transport);
+        leader.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+        leader.add(new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100));
+
+        FollowerBookingRepo follower = new FollowerBookingRepo(transport);
+        leader.add(new Booking(VW_POLO_A1_70, RENTER_GRETA, THIS_WEEK, 100));
+
+        // third entry is held back behind the gap
+        assertThat(follower.getAppliedSequence()).isEqualTo(0L);
+        assertThat(follower.getLag()).isEqualTo(3L);
+
+        follower.catchUp(leader.getEntriesSince(follower.getAppliedSequence()));
+
+        assertThat(follower.getAppliedSequence()).isEqualTo(3L);
+        assertThat(follower.getForPeriod(THIS_WEEK).size()).isEqualTo(3);
+        assertThat(follower.getLagMillis()).isEqualTo(0L);
+    }
+
+    @Test
+    public void divergedFollowerDoesNotFailTheLeadersWrite() throws Exception {
+        ReplicationTransport transport = new LoopbackReplicationTransport();
+        LeaderBookingRepo leader = new LeaderBookingRepo(transport);
+        BookingRepo stale = new InMemoryBookingRepo();
+        stale.add(new Booking(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 100));
+        FollowerBookingRepo follower = new FollowerBookingRepo(stale, transport);
+
+        leader.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+        leader.add(new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100));
+
+        assertThat(leader.getSequence()).isEqualTo(2L);
+        assertThat(follower.getDivergedAt().get().getSequence()).isEqualTo(1L);
+        assertThat(follower.getAppliedSequence()).isEqualTo(0L);
+        assertThat(follower.getLag()).isEqualTo(2L);
+    }
+
+    @Test
+    public void lagCountsEntriesNotYetDelivered() throws Exception {
+        List<Runnable> undelivered = new ArrayList<>();
+        ReplicationTransport transport = new LoopbackReplicationTransport(undelivered::add);
+        LeaderBookingRepo leader = new LeaderBookingRepo(transport);
+        FollowerBookingRepo follower = new FollowerBookingRepo(transport);
+
+        leader.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+        leader.add(new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100));
+        assertThat(follower.getLag()).isEqualTo(2L);
+
+        undelivered.forEach(Runnable::run);
+        assertThat(follower.getLag()).isEqualTo(0L);
+    }
+
+    @Test
+    public void followerRefusesEveryWrite() {
+        FollowerBookingRepo follower = new FollowerBookingRepo(new LoopbackReplicationTransport());
+
+        assertThrows(Exception.class, () -> follower.remove(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100)));
+        assertThrows(Exception.class, () -> follower.removeAll());
+    }
+
+    private static CarRentalCompany companyOn(BookingRepo bookings) {
+        CarRentalCompany api = new CarRentalCompanyImpl(bookings, new InMemoryCarRepo());
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_PASSAT_C1_110);
+        api.addCar(MINI_COOPER_C1_170);
+        return api;
+    }
+}
@@ -0,0 +1,69 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+public class BookingRepoTest {
+
+    @Test
+    public void equalCarsShareAnId() {
+        IdRegistry registry = new IdRegistry();
+
+        int golf = registry.intern(VW_GOLF_B2_90);
+        int sameGolf = registry.intern(new Car("VW", "Golf", VW_GOLF_B2_90.getRegistrationNumber(), "B2", 90));
+        int polo = registry.intern(VW_POLO_A1_65);
+
+        assertThat(sameGolf).isEqualTo(golf);
+        assertThat(polo).isEqualTo(golf + 1);
+        assertThat(registry.idOf(RENTER_JOE)).isEqualTo(IdRegistry.UNKNOWN);
+    }
+
+    @Test
+    public void bookedCarIdsOnlyIncludeOverlappingBookings() throws Exception {
+        IdRegistry registry = new IdRegistry();
+        BookingRepo db = new InMemoryBookingRepo(registry);
+
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+        db.add(new Booking(VW_POLO_A1_65, RENTER_SAM, NEXT_WEEK, 100));
+
+        BitSet booked = db.getBookedCarIds(THIS_WEEK, registry);
+
+        assertThat(booked.cardinality()).isEqualTo(1);
+        assertTrue(booked.get(registry.idOf(VW_GOLF_B2_90)));
+    }
+
+    @Test
+    public void removeKeepsPerCarIndexInStep() throws Exception {
+        BookingRepo db = new InMemoryBookingRepo();
+        Booking joes = new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+        db.add(joes);
+
+        assertTrue(db.remove(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100)));
+
+        assertThat(db.getByRegistration(VW_GOLF_B2_90.getRegistrationNumber()).size()).isEqualTo(0);
+        assertThat(db.getConflicts(VW_GOLF_B2_90, THIS_WEEK).size()).isEqualTo(0);
+    }
+
+    @Test
+    public void removeByIdOnlyRemovesThatBooking() throws Exception {
+        BookingRepo db = new InMemoryBookingRepo();
+        Booking joes = new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+        Booking sams = new Booking(VW_GOLF_B2_90, RENTER_SAM, NEXT_WEEK, 100);
+        db.add(joes);
+        db.add(sams);
+
+        assertThat(db.removeById(joes.getId()).get()).isEqualTo(joes);
+        assertFalse(db.removeById(joes.getId()).isPresent());
+
+        assertFalse(db.getById(joes.getId()).isPresent());
+        assertThat(db.getById(sams.getId()).get()).isEqualTo(sams);
+        assertThat(db.getByRegistration(VW_GOLF_B2_90.getRegistrationNumber()).size()).isEqualTo(1);
+        assertThat(db.getAll().size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,114 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class BookingRetentionTest {
+
+    private static Clock on(LocalDate day) {
+        return Clock.fixed(day.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static CarRentalCompanyImpl company() throws Exception {
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl();
+        for (Car car : List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70)) {
+            api.addCar(car);
+        }
+        api.bookCar(VW_GOLF_B2_90, RENTER_JOE, LAST_WEEK, 630);
+        api.bookCar(VW_PASSAT_C1_110, RENTER_SAM, LAST_WEEK, 770.33);
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, new DatePeriod(LAST_WEEK.getStart(), THIS_WEEK.getStart()), 1.0 / 3);
+        api.bookCar(VW_GOLF_B2_90, RENTER_MAISY, THIS_WEEK, 630);
+        api.bookMaintenance("Service", VW_POLO_A1_70, LAST_WEEK);
+        return api;
+    }
+
+    @Test
+    public void endedBookingsMoveToTheArchiveIntact() throws Exception {
+        CarRentalCompanyImpl api = company();
+        List<Booking> past = api.getBookingsForPeriod(LAST_WEEK).stream()
+            .filter(b -> b.getPeriod().getEnd().isBefore(THIS_WEEK.getStart()))
+            .toList();
+
+        int archived = new BookingRetention(api, Period.ZERO, on(THIS_WEEK.getStart()), 1).runOnce();
+
+        assertThat(archived).isEqualTo(3);
+        BookingArchive archive = api.getArchive();
+        assertThat(archive.size()).isEqualTo(3);
+        // the one overlapping the cutoff stays live, as does everything after
+        assertThat(api.getBookingsForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(2);
+        List<Booking> history = archive.getForPeriod(LAST_WEEK);
+        assertThat(history.size()).isEqualTo(3);
+        for (Booking booking : past) {
+            Booking restored = history.stream().filter(b -> b.getId() == booking.getId()).findFirst().get();
+            assertThat(restored).isEqualTo(booking);
+            assertThat(restored.getAgreedPrice()).isEqualTo(booking.getAgreedPrice());
+            assertThat(restored.getClass()).isEqualTo(booking.getClass());
+        }
+        assertThat(archive.getForPeriod(NEXT_WEEK).size()).isEqualTo(0);
+        assertThat(archive.getByRegistration(VW_PASSAT_C1_110.getRegistrationNumber()).size()).isEqualTo(1);
+        assertThat(archive.getByRenter(RENTER_JOE.getDrivingLicenseNumber()).size()).isEqualTo(1);
+        assertThat(archive.getByRenter(RENTER_MAISY.getDrivingLicenseNumber()).size()).isEqualTo(0);
+        assertThat(api.getAvailableCars(LAST_WEEK).size()).isEqualTo(3);
+    }
+
+    @Test
+    public void archiveIsCompactAndGrowsAcrossRuns() throws Exception {
+        CarRentalCompanyImpl api = company();
+        for (int week = 1; week <= 100; week++) {
+            api.bookCar(VW_PASSAT_C1_110, RENTER_GRETA,
+                new DatePeriod(NEXT_WEEK.getStart().plusWeeks(week), NEXT_WEEK.getEnd().plusWeeks(week)), 770);
+        }
+
+        new BookingRetention(api, Period.ZERO, on(THIS_WEEK.getStart()), 10).runOnce();
+        new BookingRetention(api, Period.ofWeeks(1), on(NEXT_WEEK.getStart().plusWeeks(60)), 10).runOnce();
+
+        BookingArchive archive = api.getArchive();
+        assertThat(archive.size()).isEqualTo(3 + 2 + 58);
+        assertThat(archive.getByRenter(RENTER_GRETA.getDrivingLicenseNumber()).size()).isEqualTo(58);
+        assertThat(archive.getEncodedBytes()).isLessThan(archive.size() * 16L);
+    }
+
+    @Test
+    public void runsInTheBackground() throws Exception {
+        CarRentalCompanyImpl api = company();
+
+        try (BookingRetention retention = BookingRetention.start(api, Period.ofDays(1), Duration.ofMillis(10))) {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (api.getArchive().size() < 5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        // all of the 2024 bookings are long past
+        assertThat(api.getArchive().size()).isEqualTo(5);
+        assertThat(api.getBookingsForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(0);
+    }
+
+    @Test
+    public void archivingIsReportedToListenersOfTheLiveBookings() throws Exception {
+        CarRentalCompanyImpl api = company();
+        List<RentalEvent> events = new ArrayList<>();
+        api.addEventListener(events::add);
+        int replayed = events.size();
+        try (BookingCommandQueue queue = new SingleWriterBookingCommandQueue(api)) {
+
+            new BookingRetention(api, Period.ZERO, on(THIS_WEEK.getStart()), 2).runOnce();
+            queue.bookCar(VW_PASSAT_C1_110, RENTER_GRETA, NEXT_WEEK, 770).get(); // publishes a snapshot
+
+            assertThat(events.stream().skip(replayed).filter(BookingArchived.class::isInstance).count()).isEqualTo(3L);
+            assertThat(queue.getBookingsForPeriod(LAST_WEEK).size()).isEqualTo(1);
+        }
+    }
+}
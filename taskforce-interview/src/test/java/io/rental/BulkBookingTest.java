@@ -0,0 +1,82 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class BulkBookingTest {
+
+    private static final DatePeriod MID_THIS_WEEK = new DatePeriod(LocalDate.of(2024, 02, 28), LocalDate.of(2024, 03, 01));
+
+    private static final List<BookingRequest> BATCH = List.of(
+        BookingRequest.of(VW_GOLF_B2_90, RENTER_JOE, NEXT_WEEK, 100),
+        BookingRequest.of(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100),     // car already booked
+        BookingRequest.of(VW_GOLF_B2_90, RENTER_MAISY, THIS_WEEK, 100),
+        BookingRequest.of(VW_GOLF_B2_90, RENTER_GRETA, MID_THIS_WEEK, 100), // clashes with Maisy's
+        BookingRequest.of(VW_POLO_A1_65, RENTER_SAM, NEXT_WEEK, 100)
+    );
+
+    @Test
+    public void bestEffortBooksWhatItCanInRequestOrder() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+        List<RentalEvent> events = new ArrayList<>();
+        api.addEventListener(events::add);
+        events.clear();
+
+        List<BookingResult> results = api.bookCars(BATCH, BookingRequest.Mode.BEST_EFFORT);
+
+        assertThat(results.size()).isEqualTo(5);
+        assertThat(results.get(0).getStatus()).isEqualTo(BookingResult.Status.BOOKED);
+        assertThat(results.get(1).getStatus()).isEqualTo(BookingResult.Status.CONFLICTS_WITH_EXISTING);
+        assertThat(results.get(2).getStatus()).isEqualTo(BookingResult.Status.BOOKED);
+        assertThat(results.get(3).getStatus()).isEqualTo(BookingResult.Status.CONFLICTS_WITH_BATCH);
+        assertThat(results.get(4).getStatus()).isEqualTo(BookingResult.Status.BOOKED);
+        assertThat(results.get(3).getBooking().isPresent()).isFalse();
+
+        Booking maisys = results.get(2).getBooking().get();
+        assertThat(api.getBooking(maisys.getId()).get()).isEqualTo(maisys);
+        assertThat(api.getBookingsForPeriod(THIS_WEEK_AND_NEXT).size()).isEqualTo(4);
+        assertThat(events.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void allOrNothingBooksNothingOnAnyConflict() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+
+        List<BookingResult> results = api.bookCars(BATCH, BookingRequest.Mode.ALL_OR_NOTHING);
+
+        assertThat(results.get(0).getStatus()).isEqualTo(BookingResult.Status.NOT_BOOKED);
+        assertThat(results.get(1).getStatus()).isEqualTo(BookingResult.Status.CONFLICTS_WITH_EXISTING);
+        assertThat(results.get(3).getStatus()).isEqualTo(BookingResult.Status.CONFLICTS_WITH_BATCH);
+        assertThat(api.getBookingsForPeriod(THIS_WEEK_AND_NEXT).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void allOrNothingBooksEverythingWhenClear() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+
+        List<BookingResult> results = api.bookCars(List.of(
+            BookingRequest.of(VW_GOLF_B2_90, RENTER_JOE, NEXT_WEEK, 100),
+            BookingRequest.of(VW_GOLF_B2_90, RENTER_SAM, LAST_WEEK, 100),
+            BookingRequest.of(VW_PASSAT_C1_110, RENTER_SAM, THIS_WEEK_AND_NEXT, 100)
+        ), BookingRequest.Mode.ALL_OR_NOTHING);
+
+        assertThat(results.stream().allMatch(BookingResult::isBooked)).isTrue();
+        assertThat(api.getBookingsForRenter(RENTER_SAM.getDrivingLicenseNumber()).size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,91 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static io.utils.DatePeriod.ALL_TIME;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CarRentalReadModelTest {
+
+    @Test
+    public void modelIsBuiltFromExistingState() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+
+        try (CarRentalReadModel model = AsyncCarRentalReadModel.attachTo(api, Duration.ZERO)) {
+
+            assertThat(model.getMatchingCarsCustomerView(Criteria.ALL).size()).isEqualTo(5);
+            assertThat(model.getAvailableCarsCustomerView(Criteria.ALL, THIS_WEEK).size()).isEqualTo(4);
+            assertThat(model.getGroupPricing()).isEqualTo(api.getGroupPricing());
+        }
+    }
+
+    @Test
+    public void zeroStalenessReadsOwnWrites() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create().withCars().build();
+
+        try (CarRentalReadModel model = AsyncCarRentalReadModel.attachTo(api, Duration.ZERO)) {
+
+            Booking joes = api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+            assertThat(model.getAvailableCarsCustomerView(Criteria.ALL, THIS_WEEK).size()).isEqualTo(4);
+
+            api.cancelBooking(joes);
+            assertThat(model.getAvailableCarsCustomerView(Criteria.ALL, THIS_WEEK).size()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    public void maintenanceMovesAreProjected() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+
+        try (CarRentalReadModel model = AsyncCarRentalReadModel.attachTo(api, Duration.ZERO)) {
+
+            api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+            // Mini is in maintenance, Joe has moved to the Passat
+            List<CarView> c1 = model.getAvailableCarsCustomerView(RentalGroupCriteria.of("C1"), THIS_WEEK);
+            assertThat(c1.size()).isEqualTo(0);
+            assertThat(model.getAvailableCarsCustomerView(Criteria.ALL, THIS_WEEK).size()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void newCarsArePricedIntoTheirGroup() {
+        CarRentalCompany api = TestCarCompanyBuilder.create().build();
+
+        try (CarRentalReadModel model = AsyncCarRentalReadModel.attachTo(api, Duration.ZERO)) {
+
+            api.addCar(VW_POLO_A1_65);
+            api.addCar(VW_POLO_A1_70);
+
+            double avgA1 = (VW_POLO_A1_70.getCostPerDay() + VW_POLO_A1_65.getCostPerDay()) / 2;
+            List<CarView> views = model.getAvailableCarsCustomerView(Criteria.ALL, ALL_TIME);
+            assertThat(views.get(0).getRentalGroupPrice()).isEqualTo(avgA1);
+            assertThat(views.get(1).getRentalGroupPrice()).isEqualTo(avgA1);
+            assertThat(model.getLag()).isEqualTo(0L);
+            assertThat(model.getStaleness()).isEqualTo(Duration.ZERO);
+        }
+    }
+
+    @Test
+    public void closedModelStopsCollectingEvents() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create().withCars().build();
+        CarRentalReadModel model = AsyncCarRentalReadModel.attachTo(api, Duration.ZERO);
+
+        model.close();
+        long lag = model.getLag();
+        api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+        api.addCar(VW_POLO_A1_65);
+
+        assertThat(model.getLag()).isEqualTo(lag);
+    }
+}
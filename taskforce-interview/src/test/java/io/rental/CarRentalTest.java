@@ -146,6 +146,27 @@ public class CarRentalTest {
         assertTrue(bookings.contains(gretasBooking));
     }
 
+    @Test
+    public void s3_cancellingABookingById() throws Exception{
+
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+
+        Booking gretasBooking = api.bookCar(MINI_COOPER_C1_170, RENTER_GRETA, THIS_WEEK, 100);
+        Booking joesBooking = api.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+
+        assertThat(api.getBooking(joesBooking.getId()).get()).isEqualTo(joesBooking);
+        assertTrue(api.cancelBooking(joesBooking.getId()));
+        assertFalse(api.cancelBooking(joesBooking.getId()));
+        assertFalse(api.getBooking(joesBooking.getId()).isPresent());
+
+        List<Booking> bookings = api.getBookingsForPeriod(THIS_WEEK);
+
+        assertThat(bookings.size()).isEqualTo(1);
+        assertTrue(bookings.contains(gretasBooking));
+    }
+
     @Test
     public void s3_cantBookOverlapping() throws Exception{       
         
@@ -235,6 +256,34 @@ public class CarRentalTest {
 
     }
 
+    @Test
+    public void renterBookingsFollowAMaintenanceMove() throws Exception{
+
+        Booking joeThisWeek = new Booking(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+        Booking joeLastWeek = new Booking(VW_GOLF_B2_90, RENTER_JOE, LAST_WEEK, 100);
+        Booking samThisWeek = new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100);
+
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(joeThisWeek, joeLastWeek, samThisWeek)
+            .build();
+
+        api.bookMaintenance("Car is broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+        String joe = RENTER_JOE.getDrivingLicenseNumber();
+        List<Booking> joes = api.getBookingsForRenter(joe);
+        assertThat(joes.size()).isEqualTo(2);
+        assertTrue(joes.contains(joeLastWeek));
+        assertTrue(joes.contains(new Booking(VW_PASSAT_C1_110, RENTER_JOE, THIS_WEEK, 100)));
+        assertFalse(joes.contains(joeThisWeek));
+
+        assertThat(api.getBookingsForRenter(joe, NEXT_WEEK).size()).isEqualTo(0);
+        assertThat(api.getBookingsForRenter(joe, THIS_WEEK).size()).isEqualTo(1);
+        assertTrue(api.hasBookingDuring(joe, LAST_WEEK));
+        assertFalse(api.hasBookingDuring(joe, NEXT_WEEK));
+        assertFalse(api.hasBookingDuring(RENTER_MAISY.getDrivingLicenseNumber(), THIS_WEEK));
+    }
+
     @Test
     public void s5_moveMultipleCustomerBookings() throws Exception{
         
@@ -324,4 +373,38 @@ public class CarRentalTest {
         assertThat(myBookings.get(0).getAgreedPrice()).isNotEqualTo(groupPrice);        
     }
 
+    @Test
+    public void cheapestAvailableCarsSkipsBookedCars() throws Exception{
+
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+
+        List<Car> cheapest = api.getCheapestAvailableCars(Criteria.ALL, THIS_WEEK, 2);
+
+        assertThat(cheapest.size()).isEqualTo(2);
+        assertFalse(cheapest.contains(VW_POLO_A1_65));
+        assertTrue(cheapest.contains(VW_POLO_A1_70));
+        assertTrue(cheapest.contains(MINI_COOPER_C1_170));
+    }
+
+    @Test
+    public void packedBookingRepoBehavesLikeInMemory() throws Exception{
+
+        CarRentalCompany api = new CarRentalCompanyImpl(new PackedBookingRepo(), new InMemoryCarRepo());
+        api.addCar(VW_PASSAT_C1_110);
+        api.addCar(MINI_COOPER_C1_170);
+        api.addCar(VW_GOLF_B2_90);
+
+        Booking joes = api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+        assertThrows(Exception.class, () -> api.bookCar(MINI_COOPER_C1_170, RENTER_SAM, THIS_WEEK_AND_NEXT, 100));
+
+        List<MaintenanceResult> results = api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+        assertThat(results.size()).isEqualTo(1);
+        assertThat(api.getBookingsForPeriod(THIS_WEEK_AND_NEXT).size()).isEqualTo(2);
+        assertFalse(api.getBookingsForPeriod(ALL_TIME).contains(joes));
+    }
+
 }
@@ -47,4 +47,98 @@ public class CarRepoTests {
         assertThat(carsView.get(1).getRentalGroupPrice()).isEqualTo(avgA1);        
     }
 
+    @Test
+    public void priceRangeUsesInclusiveBounds(){
+
+        CarRepo db = new InMemoryCarRepo();
+
+        db.add(VW_GOLF_B2_90);
+        db.add(VW_PASSAT_C1_110);
+        db.add(VW_POLO_A1_65);
+        db.add(VW_POLO_A1_70);
+
+        List<Car> cars = db.getByPriceRange(65, 90);
+
+        assertThat(cars.size()).isEqualTo(3);
+        assertThat(cars.get(0)).isEqualTo(VW_POLO_A1_65);
+        assertThat(cars.get(2)).isEqualTo(VW_GOLF_B2_90);
+    }
+
+    @Test
+    public void priceRangeCriteriaCombinesWithOtherCriteria(){
+
+        CarRepo db = new InMemoryCarRepo();
+
+        db.add(VW_GOLF_B2_90);
+        db.add(VW_PASSAT_C1_110);
+        db.add(VW_POLO_A1_65);
+        db.add(MINI_COOPER_C1_170);
+
+        Criteria criteria = CriteriaBuilder.create().make("VW").priceRange(60, 100).build();
+        List<Car> cars = db.getByCriteria(criteria);
+
+        assertThat(cars.size()).isEqualTo(2);
+        assertThat(cars.contains(VW_POLO_A1_65)).isTrue();
+        assertThat(cars.contains(VW_GOLF_B2_90)).isTrue();
+    }
+
+    @Test
+    public void cheapestCarsComeFirst(){
+
+        CarRepo db = new InMemoryCarRepo();
+
+        db.add(VW_PASSAT_C1_110);
+        db.add(VW_GOLF_B2_90);
+        db.add(VW_POLO_A1_70);
+        db.add(VW_POLO_A1_65);
+
+        List<Car> cars = db.getCheapestByCriteria(MakeCriteria.of("VW"), 2);
+
+        assertThat(cars.size()).isEqualTo(2);
+        assertThat(cars.get(0)).isEqualTo(VW_POLO_A1_65);
+        assertThat(cars.get(1)).isEqualTo(VW_POLO_A1_70);
+    }
+
+    @Test
+    public void cheapestCustomerViewOrdersByBlendedPrice(){
+
+        CarRepo db = new InMemoryCarRepo();
+
+        db.add(VW_PASSAT_C1_110);
+        db.add(VW_GOLF_B2_90);
+        db.add(VW_POLO_A1_65);
+
+        List<CarView> carsView = db.getCheapestCustomerViewByCriteria(Criteria.ALL, 2);
+
+        assertThat(carsView.size()).isEqualTo(2);
+        assertThat(carsView.get(0).getRentalGroup()).isEqualTo("A1");
+        assertThat(carsView.get(1).getRentalGroup()).isEqualTo("B2");
+    }
+
+    @Test
+    public void parallelScanKeepsFleetOrder(){
+
+        CarRepo sequential = new InMemoryCarRepo(Integer.MAX_VALUE);
+        CarRepo parallel = new InMemoryCarRepo(0);
+
+        for (int i = 0; i < 2_000; i++) {
+            Car car = new Car(i % 2 == 0 ? "VW" : "Mini", "Golf", "REG" + i, "B2", 90);
+            sequential.add(car);
+            parallel.add(car);
+        }
+
+        Criteria criteria = AndCriteria.of(MakeCriteria.of("VW"), ExclusionListCriteria.of(sequential.getAll().subList(0, 100)));
+
+        assertThat(parallel.getByCriteria(criteria)).isEqualTo(sequential.getByCriteria(criteria));
+        assertThat(parallel.getByCriteria(criteria).size()).isEqualTo(950);
+    }
+
+    @Test
+    public void parallelThresholdFollowsTheCores(){
+        assertThat(InMemoryCarRepo.parallelThreshold(1)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(InMemoryCarRepo.parallelThreshold(2)).isEqualTo(1_111);
+        assertThat(InMemoryCarRepo.parallelThreshold(4)).isLessThan(InMemoryCarRepo.parallelThreshold(2));
+        assertThat(InMemoryCarRepo.parallelThreshold(64)).isGreaterThan(500);
+    }
+
 }
@@ -0,0 +1,74 @@
+package io.rental;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>JMH comparison of a criteria scan of the fleet run sequentially vs. on the search pool, which
+ * {@link InMemoryCarRepo#DEFAULT_PARALLEL_THRESHOLD} is derived from.</p>
+ *
+ * <p>Not run by the build - see {@link OverlapScanBenchmark} for how to run it. On JDK 21, one core:</p>
+ * <pre>
+ * Benchmark                        (cars)  Mode  Cnt    Score     Error  Units
+ * CarScanBenchmark.parallelScan      1000  avgt    5   19.355 ±  12.722  us/op
+ * CarScanBenchmark.parallelScan     10000  avgt    5  156.406 ±  27.407  us/op
+ * CarScanBenchmark.parallelScan     50000  avgt    5  982.772 ± 336.777  us/op
+ * CarScanBenchmark.sequentialScan    1000  avgt    5    9.672 ±   2.929  us/op
+ * CarScanBenchmark.sequentialScan   10000  avgt    5  166.104 ±  76.766  us/op
+ * CarScanBenchmark.sequentialScan   50000  avgt    5  936.455 ± 522.814  us/op
+ * </pre>
+ * <p>(50,000 rather than more, as the set-up's adds re-blend the prices each time.)</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarScanBenchmark {
+
+    private static final String[] MAKES = { "VW", "Mini", "Ford", "Audi" };
+    private static final String[] GROUPS = { "A1", "B2", "C1", "D1" };
+
+    @Param({ "1000", "10000", "50000" })
+    int cars;
+
+    private final Criteria criteria = CriteriaBuilder.create().rentalGroup("A1").make("VW").build();
+    private CarRepo sequential;
+    private CarRepo parallel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        sequential = new InMemoryCarRepo(Integer.MAX_VALUE);
+        parallel = new InMemoryCarRepo(0);
+        for (int i = 0; i < cars; i++) {
+            Car car = new Car(MAKES[random.nextInt(MAKES.length)], "Model", "REG" + i,
+                GROUPS[random.nextInt(GROUPS.length)], 50 + random.nextInt(100));
+            sequential.add(car);
+            parallel.add(car);
+        }
+    }
+
+    @Benchmark
+    public int sequentialScan() {
+        return sequential.getByCriteria(criteria).size();
+    }
+
+    @Benchmark
+    public int parallelScan() {
+        return parallel.getByCriteria(criteria).size();
+    }
+}
@@ -0,0 +1,63 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class DemandPricingTest {
+
+    private static final DatePeriod FEB_MAR = new DatePeriod(LocalDate.of(2024, 02, 01), LocalDate.of(2024, 03, 31));
+
+    @Test
+    public void priceRisesWithOccupancyAndFallsBackOnCancel() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+        DemandPricing pricing = DemandPricingEngine.attachTo(api, FEB_MAR, DemandCurve.linear(1.0));
+        double blendedA1 = api.getGroupPricing().get("A1");
+
+        assertThat(pricing.getQuote("A1", THIS_WEEK)).isCloseTo(7 * blendedA1, within(1e-9));
+
+        // half the A1 fleet booked this week
+        Booking joes = api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 500);
+        assertThat(pricing.getPrice("A1", THIS_WEEK.getStart())).isCloseTo(1.5 * blendedA1, within(1e-9));
+        assertThat(pricing.getQuote("A1", THIS_WEEK_AND_NEXT)).isCloseTo(7 * 1.5 * blendedA1 + 7 * blendedA1, within(1e-9));
+
+        api.cancelBooking(joes.getId());
+        assertThat(pricing.getQuote("A1", THIS_WEEK)).isCloseTo(7 * blendedA1, within(1e-9));
+    }
+
+    @Test
+    public void daysOutsideTheWindowUseTheBlendedPrice() {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+        DemandPricing pricing = DemandPricingEngine.attachTo(api, FEB_MAR);
+        double blendedB2 = api.getGroupPricing().get("B2");
+
+        DatePeriod acrossTheEnd = new DatePeriod(LocalDate.of(2024, 03, 30), LocalDate.of(2024, 04, 02));
+        assertThat(pricing.getQuote("B2", acrossTheEnd)).isCloseTo(4 * blendedB2, within(1e-9));
+    }
+
+    @Test
+    public void availableCarsAreQuotedForThePeriod() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 500))
+            .build();
+        DemandPricing pricing = DemandPricingEngine.attachTo(api, FEB_MAR);
+
+        List<QuotedCarView> views = pricing.getAvailableCarsCustomerView(RentalGroupCriteria.of("A1"), THIS_WEEK);
+
+        assertThat(views.size()).isEqualTo(1);
+        assertThat(views.get(0).getQuote()).isEqualTo(pricing.getQuote("A1", THIS_WEEK));
+        assertThat(views.get(0).getQuote()).isGreaterThan(7 * views.get(0).getRentalGroupPrice());
+    }
+}
@@ -0,0 +1,82 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.rental.AlternativeCarView.Kind;
+import io.utils.DatePeriod;
+
+public class FlexibleSearchTest {
+
+    private static final DatePeriod TWO_DAYS = new DatePeriod(THIS_WEEK.getStart(), THIS_WEEK.getStart().plusDays(1));
+
+    private static CarRentalCompany company() throws Exception {
+        return TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(
+                // the A1 group is booked out for the two days, the first Polo freed by moving earlier, the other later
+                new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100),
+                new Booking(VW_POLO_A1_70, RENTER_MAISY, new DatePeriod(LAST_WEEK.getEnd(), TWO_DAYS.getEnd()), 100)
+            )
+            .build();
+    }
+
+    @Test
+    public void shiftedDatesForTheRequestedGroupThenNearestPricedGroups() throws Exception {
+        CarRentalCompany api = company();
+        Map<String, Double> prices = api.getGroupPricing();
+
+        List<AlternativeCarView> offers = api.getAlternativeCarsCustomerView(RentalGroupCriteria.of("A1"), TWO_DAYS, 3, 10);
+
+        assertThat(offers.size()).isEqualTo(5);
+        assertThat(offers.get(0).getKind()).isEqualTo(Kind.SHIFTED);
+        assertThat(offers.get(0).getShiftDays()).isEqualTo(-2);
+        assertThat(offers.get(0).getPeriod()).isEqualTo(new DatePeriod(TWO_DAYS.getStart().minusDays(2), TWO_DAYS.getEnd().minusDays(2)));
+        assertThat(offers.get(1).getKind()).isEqualTo(Kind.SHIFTED);
+        assertThat(offers.get(1).getShiftDays()).isEqualTo(2);
+        double a1 = prices.get("A1");
+        for (int i = 2; i < offers.size(); i++) {
+            assertThat(offers.get(i).getKind()).isEqualTo(Kind.OTHER_GROUP);
+            assertThat(offers.get(i).getPeriod()).isEqualTo(TWO_DAYS);
+            if (i > 2) {
+                assertThat(Math.abs(offers.get(i).getRentalGroupPrice() - a1))
+                    .isGreaterThanOrEqualTo(Math.abs(offers.get(i - 1).getRentalGroupPrice() - a1));
+            }
+        }
+    }
+
+    @Test
+    public void radiusAndLimitBoundTheSearch() throws Exception {
+        CarRentalCompany api = company();
+
+        List<AlternativeCarView> noShifts = api.getAlternativeCarsCustomerView(RentalGroupCriteria.of("A1"), TWO_DAYS, 1, 10);
+        List<AlternativeCarView> first = api.getAlternativeCarsCustomerView(RentalGroupCriteria.of("A1"), TWO_DAYS, 3, 1);
+
+        assertThat(noShifts.size()).isEqualTo(3);
+        assertThat(noShifts.stream().allMatch(o -> o.getKind() == Kind.OTHER_GROUP)).isTrue();
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(first.get(0).getShiftDays()).isEqualTo(-2);
+    }
+
+    @Test
+    public void requestedCarsComeFirstWhenFree() throws Exception {
+        CarRentalCompany api = company();
+
+        List<AlternativeCarView> offers = api.getAlternativeCarsCustomerView(MakeCriteria.of("VW"), TWO_DAYS, 3, 10);
+
+        assertThat(offers.size()).isEqualTo(5);
+        assertThat(offers.get(0).getKind()).isEqualTo(Kind.REQUESTED);
+        assertThat(offers.get(1).getKind()).isEqualTo(Kind.REQUESTED);
+        assertThat(offers.get(0).getRentalGroupPrice()).isLessThanOrEqualTo(offers.get(1).getRentalGroupPrice());
+        assertThat(offers.get(2).getKind()).isEqualTo(Kind.SHIFTED);
+        assertThat(offers.get(3).getKind()).isEqualTo(Kind.SHIFTED);
+        assertThat(offers.get(4).getKind()).isEqualTo(Kind.OTHER_GROUP);
+        assertThat(offers.get(4).getMake()).isEqualTo("Mini");
+        assertThat(api.getAvailableCarsCustomerView(MakeCriteria.of("VW"), TWO_DAYS).size()).isEqualTo(2);
+    }
+}
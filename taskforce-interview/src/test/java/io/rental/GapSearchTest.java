@@ -0,0 +1,85 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class GapSearchTest {
+
+    private static CarRentalCompany company(CarRentalCompany api) throws Exception {
+        for (Car car : List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70, MINI_COOPER_C1_170)) {
+            api.addCar(car);
+        }
+        // out of date order, so the per-car timeline has to sort them
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, NEXT_WEEK, 100);
+        api.bookCar(VW_POLO_A1_65, RENTER_SAM, LAST_WEEK, 100);
+        api.bookCar(VW_POLO_A1_70, RENTER_MAISY, THIS_WEEK, 100);
+        api.bookCar(VW_GOLF_B2_90, RENTER_GRETA, DatePeriod.ALL_TIME, 100);
+        return api;
+    }
+
+    @Test
+    public void earliestPeriodSkipsGapsTooShortToFit() throws Exception {
+        CarRentalCompany api = company(new CarRentalCompanyImpl());
+
+        assertThat(api.getEarliestAvailablePeriod(VW_POLO_A1_65, LAST_WEEK.getStart(), 7)).isEqualTo(Optional.of(THIS_WEEK));
+        assertThat(api.getEarliestAvailablePeriod(VW_POLO_A1_65, LAST_WEEK.getStart(), 8)).isEqualTo(
+            Optional.of(new DatePeriod(NEXT_WEEK.getEnd().plusDays(1), NEXT_WEEK.getEnd().plusDays(8))));
+        assertThat(api.getEarliestAvailablePeriod(VW_POLO_A1_65, LAST_WEEK.getStart().minusDays(3), 3)).isEqualTo(
+            Optional.of(new DatePeriod(LAST_WEEK.getStart().minusDays(3), LAST_WEEK.getStart().minusDays(1))));
+        assertThat(api.getEarliestAvailablePeriod(VW_GOLF_B2_90, LAST_WEEK.getStart(), 1).isPresent()).isFalse();
+    }
+
+    @Test
+    public void earliestCarsAreSoonestThenCheapest() throws Exception {
+        CarRentalCompany api = company(new CarRentalCompanyImpl());
+
+        List<CarAvailability> earliest = api.getEarliestAvailableCars(MakeCriteria.of("VW"), THIS_WEEK.getStart(), 7, 10);
+
+        assertThat(earliest.size()).isEqualTo(3);
+        assertThat(earliest.get(0).getCar()).isEqualTo(VW_POLO_A1_65);
+        assertThat(earliest.get(0).getPeriod()).isEqualTo(THIS_WEEK);
+        assertThat(earliest.get(1).getCar()).isEqualTo(VW_PASSAT_C1_110);
+        assertThat(earliest.get(1).getPeriod()).isEqualTo(THIS_WEEK);
+        assertThat(earliest.get(2).getCar()).isEqualTo(VW_POLO_A1_70);
+        assertThat(earliest.get(2).getPeriod()).isEqualTo(NEXT_WEEK);
+        assertThat(api.getEarliestAvailableCars(MakeCriteria.of("VW"), THIS_WEEK.getStart(), 7, 1).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void freePeriodsAreTheGapsLongEnough() throws Exception {
+        CarRentalCompany api = company(new CarRentalCompanyImpl());
+        DatePeriod range = new DatePeriod(LAST_WEEK.getStart().minusDays(3), NEXT_WEEK.getEnd().plusDays(2));
+
+        List<DatePeriod> gaps = api.getFreePeriods(VW_POLO_A1_65, range, 1);
+
+        assertThat(gaps.size()).isEqualTo(3);
+        assertThat(gaps.get(0)).isEqualTo(new DatePeriod(range.getStart(), LAST_WEEK.getStart().minusDays(1)));
+        assertThat(gaps.get(1)).isEqualTo(THIS_WEEK);
+        assertThat(gaps.get(2)).isEqualTo(new DatePeriod(NEXT_WEEK.getEnd().plusDays(1), range.getEnd()));
+        assertThat(api.getFreePeriods(VW_POLO_A1_65, range, 4).size()).isEqualTo(1);
+        assertThat(api.getFreePeriods(VW_GOLF_B2_90, range, 1).size()).isEqualTo(0);
+        assertThat(api.getFreePeriods(VW_PASSAT_C1_110, range, 1).get(0)).isEqualTo(range);
+    }
+
+    @Test
+    public void defaultRepoSearchAgreesWithTheIndexedOne() throws Exception {
+        CarRentalCompany indexed = company(new CarRentalCompanyImpl());
+        CarRentalCompany packed = company(new CarRentalCompanyImpl(new PackedBookingRepo(), new InMemoryCarRepo()));
+
+        for (Car car : List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70)) {
+            for (int days = 1; days <= 10; days++) {
+                assertThat(packed.getEarliestAvailablePeriod(car, LAST_WEEK.getStart(), days))
+                    .isEqualTo(indexed.getEarliestAvailablePeriod(car, LAST_WEEK.getStart(), days));
+            }
+            assertThat(packed.getFreePeriods(car, THIS_WEEK_AND_NEXT, 2))
+                .isEqualTo(indexed.getFreePeriods(car, THIS_WEEK_AND_NEXT, 2));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+import io.utils.ResultView;
+
+public class LazyResultsTest {
+
+    @Test
+    public void firstAvailableCarsAreTheStartOfTheFullList() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(
+                new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100),
+                new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK_AND_NEXT, 100)
+            )
+            .build();
+
+        for (DatePeriod period : List.of(LAST_WEEK, THIS_WEEK, NEXT_WEEK)) {
+            List<Car> all = api.getAvailableCars(Criteria.ALL, period);
+            List<Car> first = api.getFirstAvailableCars(Criteria.ALL, period, 2);
+            assertThat(first.size()).isEqualTo(Math.min(2, all.size()));
+            for (int i = 0; i < first.size(); i++) {
+                assertThat(first.get(i)).isEqualTo(all.get(i));
+            }
+        }
+        assertTrue(api.hasAvailableCar(MakeCriteria.of("VW"), THIS_WEEK));
+        assertFalse(api.hasAvailableCar(ModelCriteria.of("Golf"), THIS_WEEK));
+        assertTrue(api.hasAvailableCar(ModelCriteria.of("Golf"), NEXT_WEEK));
+    }
+
+    @Test
+    public void repoViewsAreLiveUntilSnapshotted() throws Exception {
+        BookingRepo db = new InMemoryBookingRepo();
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, LAST_WEEK, 100));
+        ResultView<Booking> golfThisFortnight = db.viewForPeriodAndCar(THIS_WEEK_AND_NEXT, VW_GOLF_B2_90);
+        ResultView<Booking> before = golfThisFortnight.snapshot();
+
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_SAM, NEXT_WEEK, 100));
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_MAISY, THIS_WEEK, 100));
+
+        assertTrue(before.isEmpty());
+        assertThat(golfThisFortnight.count()).isEqualTo(2);
+        assertThat(golfThisFortnight.first().get().getRenter()).isEqualTo(RENTER_MAISY);
+        assertThat(db.viewForPeriod(THIS_WEEK_AND_NEXT).count()).isEqualTo(2);
+        assertThat(db.viewForPeriod(DatePeriod.ALL_TIME).count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,112 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+
+    private static CarRentalCompany meteredCompany(InMemoryMetricsRegistry metrics) {
+        CarRentalCompany api = MeteredCarRentalCompany.wrap(new CarRentalCompanyImpl(metrics), metrics);
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        api.addCar(VW_POLO_A1_70);
+        return api;
+    }
+
+    @Test
+    public void recordsApiLatencyLockTimesAndRowCounts() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        CarRentalCompany api = meteredCompany(metrics);
+
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+        api.getAvailableCars(Criteria.ALL, THIS_WEEK);
+
+        assertThat(metrics.histogram("api.addCar").getCount()).isEqualTo(3L);
+        assertThat(metrics.histogram("api.getAvailableCars").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("company.lock.wait").getCount()).isEqualTo(5L);
+        assertThat(metrics.histogram("company.lock.hold").getCount()).isEqualTo(5L);
+        assertThat(metrics.histogram("cars.blendedPrices").getCount()).isEqualTo(3L);
+        assertThat(metrics.getCount("bookings.conflictChecks")).isEqualTo(1L);
+        assertThat(metrics.getCount("cars.scan.scanned")).isEqualTo(3L);
+        assertThat(metrics.getCount("cars.scan.returned")).isEqualTo(2L);
+    }
+
+    @Test
+    public void overloadsAreTimedSeparately() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        CarRentalCompany api = meteredCompany(metrics);
+        Booking booking = api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+
+        api.getAvailableCars(THIS_WEEK);
+        api.getAvailableCars(Criteria.ALL, THIS_WEEK);
+        api.getAvailableCars(Criteria.ALL, List.of(THIS_WEEK, NEXT_WEEK));
+        api.getBookingsForRenter(RENTER_JOE.getDrivingLicenseNumber());
+        api.getBookingsForRenter(RENTER_JOE.getDrivingLicenseNumber(), THIS_WEEK);
+        api.cancelBooking(booking.getId());
+
+        assertThat(metrics.histogram("api.getAvailableCars.all").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.getAvailableCars").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.getAvailableCars.batch").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.getBookingsForRenter").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.getBookingsForRenter.period").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.cancelBooking.byId").getCount()).isEqualTo(1L);
+        assertThat(metrics.histogram("api.cancelBooking").getCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void failedCallsAreTimedAndRethrown() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        CarRentalCompany api = meteredCompany(metrics);
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+
+        Exception thrown = null;
+        try {
+            api.bookCar(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100);
+        } catch (Exception e) {
+            thrown = e;
+        }
+
+        assertThat(thrown).hasMessageContaining("conflicting");
+        assertThat(metrics.histogram("api.bookCar").getCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void conflictChecksCountTheBookingsTheyLookAt() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        CarRentalCompany api = meteredCompany(metrics);
+        api.bookCar(VW_GOLF_B2_90, RENTER_JOE, LAST_WEEK, 100);
+        api.bookCar(VW_GOLF_B2_90, RENTER_JOE, NEXT_WEEK, 100);
+        assertThat(metrics.getCount("bookings.conflictChecks.scanned")).isEqualTo(0L);
+
+        api.bookCar(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 100); // looks at next week's, after the period
+        // stops at the conflict
+        assertThrows(Exception.class, () -> api.bookCar(VW_GOLF_B2_90, RENTER_MAISY, THIS_WEEK, 100));
+
+        assertThat(metrics.getCount("bookings.conflictChecks")).isEqualTo(4L);
+        assertThat(metrics.getCount("bookings.conflictChecks.scanned")).isEqualTo(2L);
+    }
+
+    @Test
+    public void exportsOverJmx() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        meteredCompany(metrics);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = MetricsJmxExporter.register(metrics, "metrics-test", server);
+        try {
+            assertThat(server.getAttribute(name, "api.addCar.count")).isEqualTo(3L);
+            assertThat((Long) server.getAttribute(name, "cars.scan.scanned")).isEqualTo(0L);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+import io.utils.HashedTimerWheel;
+
+public class MonthPartitionedRepoTest {
+
+    private static final DatePeriod END_OF_JAN = new DatePeriod(LocalDate.of(2024, 1, 28), LocalDate.of(2024, 2, 3));
+
+    private static void fill(BookingRepo db) throws Exception {
+        // a week per car every month of 2024, shifted so some cross the month end
+        List<Car> cars = List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70);
+        for (int month = 1; month <= 12; month++) {
+            for (int c = 0; c < cars.size(); c++) {
+                LocalDate start = LocalDate.of(2024, month, 1).plusDays(8 * c);
+                db.add(new Booking(cars.get(c), RENTER_JOE, new DatePeriod(start, start.plusDays(6)), 100));
+            }
+        }
+        db.add(new MaintenanceBooking(MINI_COOPER_C1_170, DatePeriod.ALL_TIME));
+    }
+
+    @Test
+    public void agreesWithTheUnpartitionedRepo() throws Exception {
+        BookingRepo partitioned = new MonthPartitionedBookingRepo();
+        BookingRepo plain = new InMemoryBookingRepo();
+        fill(partitioned);
+        fill(plain);
+
+        for (DatePeriod period : List.of(THIS_WEEK, END_OF_JAN, DatePeriod.ALL_TIME,
+                new DatePeriod(LocalDate.of(2023, 12, 1), LocalDate.of(2024, 4, 15)),
+                new DatePeriod(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1)))) {
+            List<Booking> expected = plain.getForPeriod(period);
+            List<Booking> actual = partitioned.getForPeriod(period);
+            assertThat(actual.size()).isEqualTo(expected.size());
+            assertTrue(actual.containsAll(expected));
+            assertThat(partitioned.getForPeriodAndCar(period, VW_POLO_A1_70).size())
+                .isEqualTo(plain.getForPeriodAndCar(period, VW_POLO_A1_70).size());
+        }
+        assertThat(partitioned.getAll().size()).isEqualTo(49);
+        assertThat(partitioned.getByRenter(RENTER_JOE.getDrivingLicenseNumber()).size()).isEqualTo(48);
+    }
+
+    @Test
+    public void queriesOnlyVisitTheMonthsTheyCover() throws Exception {
+        InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+        MonthPartitionedBookingRepo db = new MonthPartitionedBookingRepo(
+            MonthPartitionedBookingRepo.DEFAULT_MAX_SPAN_MONTHS, metrics);
+        fill(db);
+
+        long filling = metrics.getCount("bookings.partitions.visited");
+
+        assertThat(db.getPartitions().size()).isEqualTo(12);
+        db.getForPeriod(THIS_WEEK);
+        assertThat(metrics.getCount("bookings.partitions.visited") - filling).isEqualTo(2L);
+        db.getConflicts(VW_GOLF_B2_90, new DatePeriod(LocalDate.of(2024, 6, 10), LocalDate.of(2024, 6, 11)));
+        assertThat(metrics.getCount("bookings.partitions.visited") - filling).isEqualTo(3L);
+    }
+
+    @Test
+    public void conflictsAreFoundAcrossTheMonthEnd() throws Exception {
+        BookingRepo db = new MonthPartitionedBookingRepo();
+        Booking booking = new Booking(VW_GOLF_B2_90, RENTER_JOE, END_OF_JAN, 100);
+        db.add(booking);
+
+        assertThrows(Exception.class, () -> db.add(new Booking(VW_GOLF_B2_90, RENTER_SAM,
+            new DatePeriod(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2)), 100)));
+        assertThat(db.getForPeriod(END_OF_JAN).size()).isEqualTo(1);
+
+        assertTrue(db.remove(new Booking(VW_GOLF_B2_90, RENTER_JOE, END_OF_JAN, 100)));
+        assertThat(db.getForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(0);
+        assertThat(((MonthPartitionedBookingRepo) db).getPartitions().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void oldMonthsAreDroppedAsAUnit() throws Exception {
+        MonthPartitionedBookingRepo db = new MonthPartitionedBookingRepo();
+        fill(db);
+        int before = db.getAll().size();
+
+        List<Booking> dropped = db.dropMonthsBefore(YearMonth.of(2024, 3));
+
+        // January's & February's bookings, bar the one running into March
+        assertThat(dropped.size()).isEqualTo(7);
+        assertThat(db.getAll().size()).isEqualTo(before - 7);
+        assertThat(db.getPartitions().first()).isEqualTo(YearMonth.of(2024, 2)); // just the one running on
+        Booking runsOn = db.getForPeriod(new DatePeriod(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 2))).stream()
+            .filter(b -> b.getCar().equals(VW_POLO_A1_70))
+            .findFirst().get();
+        assertThat(runsOn.getPeriod().getStart()).isEqualTo(LocalDate.of(2024, 2, 25));
+        assertTrue(db.removeById(runsOn.getId()).isPresent());
+        assertThat(db.getPartitions().first()).isEqualTo(YearMonth.of(2024, 3));
+        assertThat(db.getForPeriodAndCar(DatePeriod.ALL_TIME, MINI_COOPER_C1_170).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void aBookingSpanningTheCutoffStillConflictsBeforeIt() throws Exception {
+        MonthPartitionedBookingRepo db = new MonthPartitionedBookingRepo();
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_JOE,
+            new DatePeriod(LocalDate.of(2024, 4, 28), LocalDate.of(2024, 5, 20)), 100));
+
+        assertThat(db.dropMonthsBefore(YearMonth.of(2024, 5)).size()).isEqualTo(0);
+
+        DatePeriod endOfApril = new DatePeriod(LocalDate.of(2024, 4, 29), LocalDate.of(2024, 4, 30));
+        assertThat(db.getForPeriod(endOfApril).size()).isEqualTo(1);
+        assertThat(db.getConflicts(VW_GOLF_B2_90, endOfApril).size()).isEqualTo(1);
+        assertThrows(Exception.class, () -> db.add(new Booking(VW_GOLF_B2_90, RENTER_SAM, endOfApril, 100)));
+    }
+
+    @Test
+    public void companyRunsOnAPartitionedRepo() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(new MonthPartitionedBookingRepo(), new InMemoryCarRepo());
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        Booking booking = api.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK_AND_NEXT, 100);
+
+        assertThat(api.getAvailableCars(NEXT_WEEK).size()).isEqualTo(1);
+        assertTrue(api.cancelBooking(booking.getId()));
+        assertThat(api.getAvailableCars(NEXT_WEEK).size()).isEqualTo(2);
+    }
+
+    @Test
+    public void retentionDropsWholeMonthsAndForgetsTheirHolds() throws Exception {
+        MonthPartitionedBookingRepo db = new MonthPartitionedBookingRepo();
+        fill(db);
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl(db, new InMemoryCarRepo());
+        AtomicLong clock = new AtomicLong();
+        api.setHoldTimer(new HashedTimerWheel<>(CarRentalCompanyImpl.HOLD_TICK, 16, clock::get));
+        for (Car car : List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70, MINI_COOPER_C1_170)) {
+            api.addCar(car);
+        }
+        Booking hold = api.holdCar(VW_GOLF_B2_90, RENTER_SAM,
+            new DatePeriod(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 22)), 100, Duration.ofMinutes(10));
+        LocalDate cutoff = LocalDate.of(2024, 3, 5);
+
+        int archived = new BookingRetention(api, Period.ZERO,
+            Clock.fixed(cutoff.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC), 3).runOnce();
+
+        // January & February, including the one running on to 2 March
+        assertThat(archived).isEqualTo(8);
+        assertThat(api.getArchive().size()).isEqualTo(8);
+        assertThat(db.getPartitions().first()).isEqualTo(YearMonth.of(2024, 3));
+        assertThat(api.getBooking(hold.getId()).isPresent()).isFalse();
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        assertThat(api.expireHolds()).isEqualTo(0);
+        assertThat(api.getBookingsForPeriod(new DatePeriod(LocalDate.MIN, cutoff.minusDays(1))).size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,94 @@
+package io.rental;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.utils.DatePeriod;
+import io.utils.DatePeriodUtil;
+import io.utils.OverlapKernel;
+
+/**
+ * <p>JMH comparison of a full overlap scan: the {@link DatePeriodUtil#areOverlapping} loop vs. the packed-array kernels.</p>
+ *
+ * <p>Not run by the build. After {@code mvn test-compile}:</p>
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java --add-modules jdk.incubator.vector -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main OverlapScanBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OverlapScanBenchmark {
+
+    @Param({ "1000", "100000" })
+    int bookings;
+
+    private final DatePeriod window = new DatePeriod(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+    private List<Booking> list;
+    private int[] starts;
+    private int[] ends;
+    private long[] mask;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Car car = new Car("VW", "Golf", "XX11 1UR", "B2", 90);
+        Renter renter = new Renter("Hydrogen", "Joe", "HYDRO010190JX8NM", LocalDate.of(1990, 1, 1));
+        list = new ArrayList<>(bookings);
+        starts = new int[bookings];
+        ends = new int[bookings];
+        for (int i = 0; i < bookings; i++) {
+            LocalDate start = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2_000));
+            DatePeriod period = new DatePeriod(start, start.plusDays(random.nextInt(14)));
+            list.add(new Booking(car, renter, period, 100));
+            starts[i] = OverlapKernel.toDay(period.getStart());
+            ends[i] = OverlapKernel.toDay(period.getEnd());
+        }
+        mask = OverlapKernel.newMask(bookings);
+    }
+
+    @Benchmark
+    public int areOverlappingLoop() {
+        int matches = 0;
+        for (Booking b : list) {
+            if (DatePeriodUtil.areOverlapping(window, b.getPeriod())) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int scalarKernel() {
+        Arrays.fill(mask, 0);
+        return OverlapKernel.scalar().scan(starts, ends, bookings,
+            OverlapKernel.toDay(window.getStart()), OverlapKernel.toDay(window.getEnd()), mask);
+    }
+
+    @Benchmark
+    public int vectorKernel() {
+        Arrays.fill(mask, 0);
+        return OverlapKernel.best().scan(starts, ends, bookings,
+            OverlapKernel.toDay(window.getStart()), OverlapKernel.toDay(window.getEnd()), mask);
+    }
+}
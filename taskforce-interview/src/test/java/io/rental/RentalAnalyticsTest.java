@@ -0,0 +1,59 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import io.utils.DatePeriod;
+
+public class RentalAnalyticsTest {
+
+    private static final DatePeriod FEB_MAR = new DatePeriod(LocalDate.of(2024, 02, 01), LocalDate.of(2024, 03, 31));
+
+    @Test
+    public void reportsOccupancyRevenueAndMaintenancePerGroup() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(
+                new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 700),
+                new Booking(VW_POLO_A1_70, RENTER_SAM, THIS_WEEK_AND_NEXT, 1400)
+            )
+            .build();
+        RentalAnalytics analytics = FenwickRentalAnalytics.attachTo(api, FEB_MAR);
+
+        api.bookMaintenance("Service", VW_GOLF_B2_90, NEXT_WEEK);
+
+        assertThat(analytics.getOccupiedCarDays("A1", THIS_WEEK)).isEqualTo(14L);
+        assertThat(analytics.getOccupiedCarDays("A1", NEXT_WEEK)).isEqualTo(7L);
+        assertThat(analytics.getRevenue("A1", THIS_WEEK_AND_NEXT)).isCloseTo(2100, within(1e-9));
+        assertThat(analytics.getRevenue("A1", NEXT_WEEK)).isCloseTo(700, within(1e-9));
+        assertThat(analytics.getUtilisation("A1", NEXT_WEEK)).isEqualTo(0.5);
+        assertThat(analytics.getMaintenanceDays("B2", FEB_MAR)).isEqualTo(7L);
+        assertThat(analytics.getOccupiedCarDays("B2", FEB_MAR)).isEqualTo(0L);
+    }
+
+    @Test
+    public void cancellingAndMovingUpdateTheTotals() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .build();
+        RentalAnalytics analytics = FenwickRentalAnalytics.attachTo(api, FEB_MAR);
+
+        api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 700);
+        api.bookCar(VW_POLO_A1_65, RENTER_SAM, LAST_WEEK, 350);
+
+        // Joe is moved to the Passat - still C1
+        api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+        assertThat(analytics.getOccupiedCarDays("C1", THIS_WEEK)).isEqualTo(7L);
+        assertThat(analytics.getRevenue("C1", THIS_WEEK)).isCloseTo(700, within(1e-9));
+
+        // cancelling a copy still takes off the stored booking's price
+        api.cancelBooking(new Booking(VW_POLO_A1_65, RENTER_SAM, LAST_WEEK, 0));
+        assertThat(analytics.getRevenue("A1", FEB_MAR)).isCloseTo(0, within(1e-9));
+        assertThat(analytics.getOccupiedCarDays("A1", FEB_MAR)).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,114 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class RentalChangeFeedTest {
+
+    @Test
+    public void subscriberSeesBookingChangesInOrder() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create()
+            .withCars()
+            .withBookings(new Booking(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100))
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE, 4);
+        api.getChangeFeed().subscribe(subscriber);
+        subscriber.subscribed.await(5, TimeUnit.SECONDS);
+
+        Booking gretas = api.bookCar(VW_GOLF_B2_90, RENTER_GRETA, THIS_WEEK, 100);
+        api.cancelBooking(gretas);
+        api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+        assertThat(subscriber.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events.get(0)).isInstanceOf(BookingAdded.class);
+        assertThat(subscriber.events.get(1)).isInstanceOf(BookingCancelled.class);
+        assertThat(subscriber.events.get(2)).isInstanceOf(BookingMoved.class);
+        assertThat(subscriber.events.get(3)).isInstanceOf(MaintenanceBooked.class);
+        assertThat(((MaintenanceBooked) subscriber.events.get(3)).getResults().size()).isEqualTo(1);
+        assertThat(subscriber.events.get(3).getSequence()).isEqualTo(subscriber.events.get(0).getSequence() + 3);
+    }
+
+    @Test
+    public void slowSubscriberOnlyDropsItsOwnEvents() throws Exception {
+        Executor direct = Runnable::run;
+        RentalChangeFeed feed = new RentalChangeFeed(direct, 2);
+
+        RecordingSubscriber slow = new RecordingSubscriber(0, 0);
+        RecordingSubscriber fast = new RecordingSubscriber(Long.MAX_VALUE, 5);
+        feed.subscribe(slow);
+        feed.subscribe(fast);
+
+        for (int i = 1; i <= 5; i++) {
+            feed.onEvent(new CarAdded(i, VW_GOLF_B2_90));
+        }
+
+        assertThat(fast.events.size()).isEqualTo(5);
+        assertThat(slow.events.size()).isEqualTo(0);
+        assertThat(feed.getDroppedCount()).isGreaterThan(0L);
+        feed.close();
+    }
+
+    @Test
+    public void closingTheCompanyCompletesTheFeed() throws Exception {
+        CarRentalCompany api = TestCarCompanyBuilder.create().withCars().build();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE, 1);
+        api.getChangeFeed().subscribe(subscriber);
+        subscriber.subscribed.await(5, TimeUnit.SECONDS);
+
+        api.bookCar(VW_GOLF_B2_90, RENTER_GRETA, THIS_WEEK, 100);
+        api.close();
+        api.bookCar(VW_GOLF_B2_90, RENTER_GRETA, NEXT_WEEK, 100);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events.size()).isEqualTo(1);
+
+        RecordingSubscriber late = new RecordingSubscriber(Long.MAX_VALUE, 0);
+        api.getChangeFeed().subscribe(late);
+        assertThat(late.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    static class RecordingSubscriber implements Flow.Subscriber<RentalEvent> {
+        final List<RentalEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch received;
+        final long demand;
+
+        RecordingSubscriber(long demand, int expected) {
+            this.demand = demand;
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (demand > 0) {
+                subscription.request(demand);
+            }
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(RentalEvent event) {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {}
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.utils.DatePeriod;
+
+import org.junit.jupiter.api.Test;
+
+public class ShardedRepoTest {
+
+    @Test
+    public void bookingsAreGatheredAcrossShards() throws Exception {
+        BookingRepo db = new ShardedBookingRepo(CarPartitioner.byRentalGroup());
+
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100));
+        db.add(new Booking(VW_POLO_A1_65, RENTER_SAM, THIS_WEEK, 100));
+        db.add(new Booking(MINI_COOPER_C1_170, RENTER_GRETA, NEXT_WEEK, 100));
+
+        assertThat(db.getForPeriod(THIS_WEEK).size()).isEqualTo(2);
+        assertThat(db.getAll().size()).isEqualTo(3);
+        assertThat(((ShardedBookingRepo) db).getShardCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void conflictsAreDetectedWithinTheShard() throws Exception {
+        BookingRepo db = new ShardedBookingRepo(CarPartitioner.byRegistrationHash(4));
+
+        db.add(new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK_AND_NEXT, 100));
+
+        assertThrows(Exception.class, () -> db.add(new Booking(VW_GOLF_B2_90, RENTER_SAM, THIS_WEEK, 100)));
+    }
+
+    @Test
+    public void moveAcrossShards() throws Exception {
+        BookingRepo db = new ShardedBookingRepo(CarPartitioner.byRentalGroup());
+        Booking joes = new Booking(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+        Booking moved = new Booking(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+        db.add(joes);
+
+        db.move(joes, moved);
+
+        assertThat(db.getByRegistration(VW_GOLF_B2_90.getRegistrationNumber()).size()).isEqualTo(0);
+        assertThat(db.getByRegistration(VW_POLO_A1_65.getRegistrationNumber()).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void blendedPricesSpanHashShards() {
+        CarRepo db = ShardedCarRepo.byRegistrationHash(8);
+
+        db.add(VW_POLO_A1_65);
+        db.add(VW_POLO_A1_70);
+        db.add(VW_GOLF_B2_90);
+
+        double avgA1 = (VW_POLO_A1_70.getCostPerDay() + VW_POLO_A1_65.getCostPerDay()) / 2;
+        assertThat(db.getBlendedPrices().get("A1")).isEqualTo(avgA1);
+        assertThat(db.getCustomerViewByCriteria(RentalGroupCriteria.of("A1")).get(0).getRentalGroupPrice()).isEqualTo(avgA1);
+        assertThat(db.getCheapestByCriteria(Criteria.ALL, 1).get(0)).isEqualTo(VW_POLO_A1_65);
+    }
+
+    @Test
+    public void companyRunsOnShardedRepos() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRentalGroup()),
+            ShardedCarRepo.byRentalGroup());
+        api.addCar(VW_PASSAT_C1_110);
+        api.addCar(MINI_COOPER_C1_170);
+        api.addCar(VW_GOLF_B2_90);
+        api.bookCar(MINI_COOPER_C1_170, RENTER_JOE, THIS_WEEK, 100);
+
+        List<MaintenanceResult> results = api.bookMaintenance("Broken", MINI_COOPER_C1_170, THIS_WEEK);
+
+        assertThat(results.size()).isEqualTo(1);
+        assertThat(api.getAvailableCars(Criteria.ALL, THIS_WEEK).size()).isEqualTo(1);
+        assertTrue(api.getAvailableCars(Criteria.ALL, THIS_WEEK).contains(VW_GOLF_B2_90));
+    }
+
+    @Test
+    public void queriesDoNotGrowTheCompanysRegistry() throws Exception {
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRegistrationHash(4)),
+            ShardedCarRepo.byRegistrationHash(4));
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        Car unlisted = new Car("VW", "Up", "XX99 9UR", "A1", 50);
+        api.bookCar(unlisted, RENTER_JOE, THIS_WEEK, 100);
+
+        assertThat(api.getAvailableCars(Criteria.ALL, THIS_WEEK).size()).isEqualTo(2);
+        assertThat(api.countAvailableCars(Criteria.ALL, List.of(THIS_WEEK, NEXT_WEEK)).get(0)).isEqualTo(2);
+        assertThat(api.getAlternativeCarsCustomerView(Criteria.ALL, THIS_WEEK, 2, 10).size()).isEqualTo(2);
+
+        assertThat(api.registry.carCount()).isEqualTo(2);
+        assertThat(api.registry.idOf(unlisted)).isEqualTo(IdRegistry.UNKNOWN);
+    }
+
+    @Test
+    public void concurrentBookingsOfDifferentCarsAreAllApplied() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRegistrationHash(4)),
+            ShardedCarRepo.byRegistrationHash(4));
+        List<Car> cars = List.of(VW_GOLF_B2_90, VW_PASSAT_C1_110, VW_POLO_A1_65, VW_POLO_A1_70);
+        for (Car car : cars) {
+            api.addCar(car);
+        }
+        AtomicInteger events = new AtomicInteger();
+        api.addEventListener(event -> events.incrementAndGet());
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        List<Thread> writers = new ArrayList<>();
+        for (Car car : cars) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int day = 0; day < 200; day++) {
+                    DatePeriod period = new DatePeriod(start.plusDays(day), start.plusDays(day));
+                    try {
+                        Booking booking = api.bookCar(car, RENTER_JOE, period, 100);
+                        if (day % 2 == 0) {
+                            api.cancelBooking(booking.getId());
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(api.getBookingsForPeriod(DatePeriod.ALL_TIME).size()).isEqualTo(400);
+        assertThat(events.get()).isEqualTo(4 + 4 * 300); // the replayed cars, then every booking & cancellation
+    }
+
+    @Test
+    public void queriesDoNotWaitForABookingOfAnotherCar() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRentalGroup()),
+            ShardedCarRepo.byRentalGroup());
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        api.addEventListener(event -> {
+            if (event instanceof BookingAdded) {
+                inListener.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        CompletableFuture<Booking> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return api.bookCar(VW_GOLF_B2_90, RENTER_JOE, THIS_WEEK, 100);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(inListener.await(5, TimeUnit.SECONDS));
+        try {
+            List<Car> available = CompletableFuture.supplyAsync(() -> api.getAvailableCars(Criteria.ALL, NEXT_WEEK))
+                .get(5, TimeUnit.SECONDS);
+            assertThat(available.size()).isEqualTo(2);
+        } finally {
+            release.countDown();
+        }
+        blocked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void queriesDoNotWaitForMaintenance() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRentalGroup()),
+            ShardedCarRepo.byRentalGroup());
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_POLO_A1_65);
+        api.addCar(VW_POLO_A1_70);
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        api.addEventListener(event -> {
+            if (event instanceof BookingMoved) {
+                inListener.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        CompletableFuture<List<MaintenanceResult>> maintenance = CompletableFuture.supplyAsync(() -> {
+            try {
+                return api.bookMaintenance("Service", VW_POLO_A1_65, THIS_WEEK);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(inListener.await(5, TimeUnit.SECONDS));
+        try {
+            List<Car> available = CompletableFuture.supplyAsync(() -> api.getAvailableCars(Criteria.ALL, NEXT_WEEK))
+                .get(5, TimeUnit.SECONDS);
+            assertThat(available.size()).isEqualTo(3);
+        } finally {
+            release.countDown();
+        }
+        assertThat(maintenance.get(5, TimeUnit.SECONDS).size()).isEqualTo(1);
+        assertThat(api.getBookingsForRenter(RENTER_JOE.getDrivingLicenseNumber()).get(0).getCar())
+            .isEqualTo(VW_POLO_A1_70);
+    }
+
+    @Test
+    public void maintenanceStillBumpsHoldsOnShardedRepos() throws Exception {
+        CarRentalCompany api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRentalGroup()),
+            ShardedCarRepo.byRentalGroup());
+        api.addCar(VW_POLO_A1_65);
+        Booking hold = api.holdCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100, Duration.ofMinutes(10));
+
+        assertThat(api.bookMaintenance("Service", VW_POLO_A1_65, THIS_WEEK).size()).isEqualTo(0);
+
+        assertThrows(Exception.class, () -> api.confirmHold(hold.getId()));
+        assertThat(api.getAvailableCars(Criteria.ALL, THIS_WEEK).size()).isEqualTo(0);
+        api.close();
+    }
+
+    @Test
+    public void aCarIsPricedAsSoonAsItCanBeFound() throws Exception {
+        CarRepo db = ShardedCarRepo.byRegistrationHash(4);
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 2000; i++) {
+                db.add(new Car("VW", "Golf", "XX" + i, "G" + i, 90));
+            }
+        });
+        while (writer.isAlive()) {
+            for (CarView view : db.getCustomerViewByCriteria(Criteria.ALL)) {
+                assertThat(view.getRentalGroupPrice()).isEqualTo(90.0);
+            }
+        }
+        writer.join();
+    }
+}
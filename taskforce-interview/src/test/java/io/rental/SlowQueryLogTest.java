@@ -0,0 +1,120 @@
+package io.rental;
+
+import static io.rental.TestCarCompanyBuilder.*;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class SlowQueryLogTest {
+
+    private static CarRentalCompanyImpl company() throws Exception {
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl();
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_PASSAT_C1_110);
+        api.addCar(VW_POLO_A1_65);
+        api.addCar(VW_POLO_A1_70);
+        api.addCar(MINI_COOPER_C1_170);
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+        return api;
+    }
+
+    @Test
+    public void recordsStagesOfSlowSearchesInARing() throws Exception {
+        CarRentalCompanyImpl api = company();
+        SlowQueryLog log = new SlowQueryLog(Duration.ZERO, 2);
+        api.setSlowQueryLog(log);
+
+        api.getAvailableCars(Criteria.ALL, NEXT_WEEK);
+        api.getAvailableCars(Criteria.ALL, LAST_WEEK);
+        api.getAvailableCarsCustomerView(CriteriaBuilder.create().rentalGroup("A1").make("VW").build(), THIS_WEEK);
+
+        List<QueryTrace> entries = log.getEntries();
+        assertThat(log.getSlowCount()).isEqualTo(3L);
+        assertThat(entries.size()).isEqualTo(2);
+        assertThat(entries.get(0).getPeriod()).isEqualTo(LAST_WEEK);
+
+        QueryTrace trace = entries.get(1);
+        assertThat(trace.getOperation()).isEqualTo("getAvailableCarsCustomerView");
+        assertThat(trace.getCriteria()).isEqualTo("group=A1 AND make~VW");
+        assertThat(trace.getFleetScanned()).isEqualTo(5);
+        assertThat(trace.getBookedCars()).isEqualTo(1);
+        assertThat(trace.getResults()).isEqualTo(1);
+        assertThat(trace.getTotalNanos()).isEqualTo(trace.getBookedCarsNanos() + trace.getFleetScanNanos());
+    }
+
+    @Test
+    public void fleetScannedIsTheCarsTheQueryLookedAt() throws Exception {
+        CarRentalCompanyImpl api = new CarRentalCompanyImpl(
+            new ShardedBookingRepo(CarPartitioner.byRentalGroup()), ShardedCarRepo.byRentalGroup());
+        api.addCar(VW_GOLF_B2_90);
+        api.addCar(VW_PASSAT_C1_110);
+        api.addCar(VW_POLO_A1_65);
+        api.addCar(VW_POLO_A1_70);
+        api.addCar(MINI_COOPER_C1_170);
+        api.bookCar(VW_POLO_A1_65, RENTER_JOE, THIS_WEEK, 100);
+        SlowQueryLog log = new SlowQueryLog(Duration.ZERO, 10);
+        api.setSlowQueryLog(log);
+
+        api.getAvailableCars(RentalGroupCriteria.of("A1"), THIS_WEEK);
+        api.hasAvailableCar(Criteria.ALL, THIS_WEEK);
+        api.countAvailableCars(RentalGroupCriteria.of("C1"), List.of(THIS_WEEK, NEXT_WEEK));
+        api.getAlternativeCarsCustomerView(RentalGroupCriteria.of("A1"), THIS_WEEK, 1, 10);
+
+        List<QueryTrace> entries = log.getEntries();
+        assertThat(entries.size()).isEqualTo(4);
+        // just the A1 shard
+        assertThat(entries.get(0).getFleetScanned()).isEqualTo(2);
+        assertThat(entries.get(0).getResults()).isEqualTo(1);
+        // stops at the first free car
+        assertThat(entries.get(1).getOperation()).isEqualTo("hasAvailableCar");
+        assertThat(entries.get(1).getFleetScanned()).isLessThan(5);
+        assertThat(entries.get(1).getResults()).isEqualTo(1);
+        assertThat(entries.get(2).getOperation()).isEqualTo("countAvailableCars");
+        assertThat(entries.get(2).getFleetScanned()).isEqualTo(2);
+        assertThat(entries.get(2).getBookedCars()).isEqualTo(1);
+        assertThat(entries.get(2).getResults()).isEqualTo(4);
+        assertThat(entries.get(3).getOperation()).isEqualTo("getAlternativeCarsCustomerView");
+        assertThat(entries.get(3).getFleetScanned()).isEqualTo(5);
+    }
+
+    @Test
+    public void fastSearchesAreNotLogged() throws Exception {
+        CarRentalCompanyImpl api = company();
+        SlowQueryLog log = new SlowQueryLog(Duration.ofMinutes(1), 10);
+        api.setSlowQueryLog(log);
+
+        api.getAvailableCars(THIS_WEEK);
+
+        assertThat(log.getEntries().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void emitsJfrEvents() throws Exception {
+        CarRentalCompanyImpl api = company();
+        Path file = Files.createTempFile("criteria-search", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.rental.CriteriaSearch");
+            recording.start();
+            api.getCheapestAvailableCars(Criteria.ALL, THIS_WEEK, 2);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events.size()).isEqualTo(1);
+            assertThat(events.get(0).getString("operation")).isEqualTo("getCheapestAvailableCars");
+            assertThat(events.get(0).getInt("bookedCars")).isEqualTo(1);
+            assertThat(events.get(0).getInt("results")).isEqualTo(2);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
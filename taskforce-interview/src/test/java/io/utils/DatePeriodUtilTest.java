@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -77,4 +78,56 @@ class DatePeriodUtilTest {
         assertThat(DatePeriodUtil.areOverlapping(BASE_PERIOD, PERIOD_AFTER)).isFalse();
     }
 
+    @Test
+    void testPeriodsWithinStepThroughTheRangeAndFit() {
+        List<DatePeriod> weeks = DatePeriodUtil.periodsWithin(BASE_PERIOD, 7, 7);
+
+        assertThat(weeks.size()).isEqualTo(3);
+        assertThat(weeks.get(0)).isEqualTo(new DatePeriod(LocalDate.of(2023, 01, 14), LocalDate.of(2023, 01, 20)));
+        assertThat(weeks.get(2)).isEqualTo(new DatePeriod(LocalDate.of(2023, 01, 28), LocalDate.of(2023, 02, 03)));
+        assertThat(DatePeriodUtil.periodsWithin(BASE_PERIOD, 1, 1).size()).isEqualTo(23);
+        assertThat(DatePeriodUtil.span(weeks)).isEqualTo(new DatePeriod(LocalDate.of(2023, 01, 14), LocalDate.of(2023, 02, 03)));
+    }
+
+    @Test
+    void testFirstGapAndGapsBetweenBookedPeriods() {
+        List<DatePeriod> booked = List.of(PERIOD_BEFORE, BASE_PERIOD, PERIOD_AFTER);
+
+        assertThat(DatePeriodUtil.firstGap(booked, LocalDate.of(2023, 01, 01), 1).isPresent()).isTrue();
+        assertThat(DatePeriodUtil.firstGap(booked, LocalDate.of(2023, 01, 01), 1).get())
+            .isEqualTo(new DatePeriod(LocalDate.of(2023, 02, 13), LocalDate.of(2023, 02, 13)));
+        assertThat(DatePeriodUtil.firstGap(booked, LocalDate.of(2022, 12, 30), 2).get())
+            .isEqualTo(new DatePeriod(LocalDate.of(2022, 12, 30), LocalDate.of(2022, 12, 31)));
+        assertThat(DatePeriodUtil.firstGap(List.of(DatePeriod.ALL_TIME), LocalDate.of(2023, 01, 01), 1).isPresent()).isFalse();
+
+        List<DatePeriod> gaps = DatePeriodUtil.gaps(List.of(START_OVERLAP, END_OVERLAP), BASE_PERIOD, 1);
+        assertThat(gaps.size()).isEqualTo(1);
+        assertThat(gaps.get(0)).isEqualTo(new DatePeriod(LocalDate.of(2023, 01, 17), LocalDate.of(2023, 02, 03)));
+        assertThat(DatePeriodUtil.gaps(List.of(), BASE_PERIOD, 1).get(0)).isEqualTo(BASE_PERIOD);
+        assertThat(DatePeriodUtil.gaps(List.of(WHOLLY_COVERS_PERIOD), BASE_PERIOD, 1).size()).isEqualTo(0);
+    }
+
+    @Test
+    void testDayOffsetsWithinClampToTheWindow() {
+        int[] overlap = DatePeriodUtil.dayOffsetsWithin(BASE_PERIOD, START_OVERLAP);
+        assertThat(overlap[0]).isEqualTo(0);
+        assertThat(overlap[1]).isEqualTo(2);
+
+        int[] covering = DatePeriodUtil.dayOffsetsWithin(BASE_PERIOD, WHOLLY_COVERS_PERIOD);
+        assertThat(covering[0]).isEqualTo(0);
+        assertThat(covering[1]).isEqualTo(22);
+
+        assertThat(DatePeriodUtil.dayOffsetsWithin(BASE_PERIOD, PERIOD_BEFORE)).isNull();
+    }
+
+    @Test
+    void testFirstEndingOnOrAfterOverEndDays() {
+        int[] ends = { 3, 7, 12 };
+
+        assertThat(DatePeriodUtil.firstEndingOnOrAfter(ends, 1)).isEqualTo(0);
+        assertThat(DatePeriodUtil.firstEndingOnOrAfter(ends, 7)).isEqualTo(1);
+        assertThat(DatePeriodUtil.firstEndingOnOrAfter(ends, 8)).isEqualTo(2);
+        assertThat(DatePeriodUtil.firstEndingOnOrAfter(ends, 13)).isEqualTo(3);
+        assertThat(DatePeriodUtil.firstEndingOnOrAfter(new int[0], 1)).isEqualTo(0);
+    }
 }
@@ -0,0 +1,36 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class FenwickTreeTest {
+
+    @Test
+    void testRangeSumsAgreeWithPlainArray() {
+        Random random = new Random(11);
+        int size = 97;
+        FenwickTree tree = new FenwickTree(size);
+        double[] plain = new double[size];
+
+        for (int i = 0; i < 2_000; i++) {
+            int from = random.nextInt(size);
+            int to = from + random.nextInt(size - from);
+            int delta = random.nextInt(21) - 10;
+            tree.add(from, to, delta);
+            for (int j = from; j <= to; j++) {
+                plain[j] += delta;
+            }
+
+            int qFrom = random.nextInt(size);
+            int qTo = qFrom + random.nextInt(size - qFrom);
+            double expected = 0;
+            for (int j = qFrom; j <= qTo; j++) {
+                expected += plain[j];
+            }
+            assertThat(tree.sum(qFrom, qTo)).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class HashedTimerWheelTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void firesOnTheFirstTickAtOrAfterTheDeadline() {
+        AtomicLong clock = new AtomicLong(1_000 * SECOND);
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, clock::get);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("soon", Duration.ofMillis(1500));
+        wheel.schedule("laps", Duration.ofSeconds(20)); // two and a half laps of an 8-bucket wheel
+
+        clock.addAndGet(SECOND);
+        assertThat(wheel.advance(expired::add)).isEqualTo(0);
+        clock.addAndGet(SECOND);
+        assertThat(wheel.advance(expired::add)).isEqualTo(1);
+        assertThat(expired.get(0)).isEqualTo("soon");
+
+        clock.addAndGet(17 * SECOND);
+        assertThat(wheel.advance(expired::add)).isEqualTo(0);
+        clock.addAndGet(SECOND);
+        assertThat(wheel.advance(expired::add)).isEqualTo(1);
+        assertThat(expired.get(1)).isEqualTo("laps");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        AtomicLong clock = new AtomicLong();
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, clock::get);
+
+        HashedTimerWheel.Timeout<Integer> cancelled = wheel.schedule(1, Duration.ofSeconds(2));
+        HashedTimerWheel.Timeout<Integer> kept = wheel.schedule(2, Duration.ofSeconds(2));
+        assertThat(cancelled.cancel()).isTrue();
+
+        clock.addAndGet(5 * SECOND);
+        assertThat(wheel.advance(i -> assertThat(i).isEqualTo(2))).isEqualTo(1);
+        assertThat(kept.isExpired()).isTrue();
+        assertThat(kept.cancel()).isFalse();
+        assertThat(cancelled.isExpired()).isFalse();
+    }
+
+    @Test
+    void manyTimeoutsExpireInDeadlineOrderByTick() {
+        AtomicLong clock = new AtomicLong();
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 64, clock::get);
+        int timeouts = 200_000;
+        for (int i = 0; i < timeouts; i++) {
+            wheel.schedule(i, Duration.ofSeconds(1 + i % 600));
+        }
+
+        long total = 0;
+        for (int second = 1; second <= 600; second++) {
+            clock.addAndGet(SECOND);
+            int expired = wheel.advance(i -> { });
+            assertThat(expired).isEqualTo(timeouts / 600 + (second <= timeouts % 600 ? 1 : 0));
+            total += expired;
+        }
+        assertThat(total).isEqualTo((long) timeouts);
+    }
+
+    @Test
+    void advanceBatchHandsOverEveryDueTaskAtOnce() {
+        AtomicLong clock = new AtomicLong();
+        HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, clock::get);
+        wheel.schedule(1, Duration.ofSeconds(1));
+        wheel.schedule(2, Duration.ofSeconds(3));
+        wheel.schedule(3, Duration.ofSeconds(20));
+        List<List<Integer>> batches = new ArrayList<>();
+
+        clock.addAndGet(5 * SECOND);
+        assertThat(wheel.advanceBatch(batches::add)).isEqualTo(2);
+        assertThat(wheel.advanceBatch(batches::add)).isEqualTo(0);
+
+        assertThat(batches.size()).isEqualTo(1);
+        assertThat(batches.get(0).size()).isEqualTo(2);
+    }
+}
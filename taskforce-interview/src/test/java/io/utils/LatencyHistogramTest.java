@@ -0,0 +1,34 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1_000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000L);
+        assertThat(histogram.getMax()).isEqualTo(100_000_000L);
+        assertThat((double) histogram.getValueAtPercentile(50)).isBetween(50_000_000.0, 50_000_000 * 1.04);
+        assertThat((double) histogram.getValueAtPercentile(99)).isBetween(99_000_000.0, 99_000_000 * 1.04);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000L);
+    }
+
+    @Test
+    void testBucketsAreContiguous() {
+        for (long v = 0; v < 1 << 16; v++) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            assertThat(v).isLessThanOrEqualTo(LatencyHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                assertThat(v).isGreaterThan(LatencyHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+        assertThat(LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,42 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void testAgreesWithHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(7);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+        Map<Long, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = 1 + random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 500; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void testZeroKeyIsNeverPresent() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThat(map.get(0)).isNull();
+        assertThat(map.remove(0)).isNull();
+        assertThat(map.containsKey(0)).isFalse();
+    }
+}
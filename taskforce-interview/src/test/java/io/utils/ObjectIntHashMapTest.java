@@ -0,0 +1,42 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ObjectIntHashMapTest {
+
+    @Test
+    void testAgreesWithHashMapUnderRandomPuts() {
+        Random random = new Random(7);
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<>(4);
+        Map<String, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "XX" + random.nextInt(2_000);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int k = 0; k < 2_500; k++) {
+            String key = "XX" + k;
+            assertThat(map.get(key, -1)).isEqualTo(expected.getOrDefault(key, -1));
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+        }
+    }
+
+    @Test
+    void testAbsentAndNullKeysReadAsMissing() {
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+        map.put("a", 0);
+
+        assertThat(map.get("a", -1)).isEqualTo(0);
+        assertThat(map.get("b", -1)).isEqualTo(-1);
+        assertThat(map.get(null, -1)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,64 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class OverlapKernelTest {
+
+    private static final DatePeriod BASE_PERIOD = new DatePeriod(LocalDate.of(2023, 01, 14), LocalDate.of(2023, 02, 05));
+
+    @Test
+    void testKernelsAgreeWithAreOverlapping() {
+        Random random = new Random(42);
+        int count = 1_003; // deliberately not a multiple of any vector width
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        DatePeriod[] periods = new DatePeriod[count];
+        for (int i = 0; i < count; i++) {
+            LocalDate start = BASE_PERIOD.getStart().plusDays(random.nextInt(120) - 60);
+            periods[i] = new DatePeriod(start, start.plusDays(random.nextInt(14)));
+            starts[i] = OverlapKernel.toDay(periods[i].getStart());
+            ends[i] = OverlapKernel.toDay(periods[i].getEnd());
+        }
+
+        long[] scalarMask = OverlapKernel.newMask(count);
+        long[] bestMask = OverlapKernel.newMask(count);
+        int q0 = OverlapKernel.toDay(BASE_PERIOD.getStart());
+        int q1 = OverlapKernel.toDay(BASE_PERIOD.getEnd());
+        int scalarMatches = OverlapKernel.scalar().scan(starts, ends, count, q0, q1, scalarMask);
+        int bestMatches = OverlapKernel.best().scan(starts, ends, count, q0, q1, bestMask);
+
+        int expected = 0;
+        for (int i = 0; i < count; i++) {
+            boolean overlapping = DatePeriodUtil.areOverlapping(BASE_PERIOD, periods[i]);
+            expected += overlapping ? 1 : 0;
+            assertThat((scalarMask[i >>> 6] & (1L << i)) != 0).isEqualTo(overlapping);
+            assertThat((bestMask[i >>> 6] & (1L << i)) != 0).isEqualTo(overlapping);
+        }
+        assertThat(scalarMatches).isEqualTo(expected);
+        assertThat(bestMatches).isEqualTo(expected);
+    }
+
+    @Test
+    void testVectorKernelIsPickedWhenModulePresent() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        assertThat(OverlapKernel.best().name()).startsWith("vector");
+    }
+
+    @Test
+    void testAllTimeClampsAndStillOverlaps() {
+        int[] starts = { OverlapKernel.toDay(DatePeriod.ALL_TIME.getStart()) };
+        int[] ends = { OverlapKernel.toDay(DatePeriod.ALL_TIME.getEnd()) };
+        long[] mask = OverlapKernel.newMask(1);
+
+        int matches = OverlapKernel.best().scan(starts, ends, 1,
+            OverlapKernel.toDay(BASE_PERIOD.getStart()), OverlapKernel.toDay(BASE_PERIOD.getEnd()), mask);
+
+        assertThat(matches).isEqualTo(1);
+    }
+}
@@ -0,0 +1,47 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ResultViewTest {
+
+    private static final List<Integer> NUMBERS = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+    @Test
+    void shortCircuitsOnlyPullWhatTheyNeed() {
+        AtomicInteger pulled = new AtomicInteger();
+        ResultView<Integer> evens = ResultView.of(NUMBERS)
+            .map(i -> { pulled.incrementAndGet(); return i; })
+            .filter(i -> i % 2 == 0);
+
+        assertThat(evens.first(2).equals(List.of(2, 4))).isTrue();
+        assertThat(pulled.get()).isEqualTo(4);
+
+        pulled.set(0);
+        assertThat(evens.isEmpty()).isFalse();
+        assertThat(pulled.get()).isEqualTo(2);
+
+        assertThat(evens.count()).isEqualTo(5);
+        assertThat(evens.first().get()).isEqualTo(2);
+        assertThat(evens.filter(i -> i > 10).isEmpty()).isTrue();
+        assertThat(ResultView.empty().first().isPresent()).isFalse();
+    }
+
+    @Test
+    void viewsAreLiveButSnapshotsAreNot() {
+        List<Integer> source = new ArrayList<>(NUMBERS);
+        ResultView<Integer> live = ResultView.of(source).filter(i -> i > 5);
+        ResultView<Integer> snapshot = live.snapshot();
+
+        source.add(11);
+
+        assertThat(live.count()).isEqualTo(6);
+        assertThat(snapshot.count()).isEqualTo(5);
+        assertThat(live.stream().mapToInt(i -> i).sum()).isEqualTo(6 + 7 + 8 + 9 + 10 + 11);
+    }
+}
@@ -0,0 +1,30 @@
+package io.utils;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+    @Test
+    void testReturnsTheSmallestInOrder() {
+        List<Integer> items = List.of(5, 3, 9, 1, 7);
+
+        assertThat(TopK.smallest(items, 3, Comparator.naturalOrder())).isEqualTo(List.of(1, 3, 5));
+        assertThat(TopK.smallest(items, 0, Comparator.naturalOrder())).isEqualTo(List.of());
+    }
+
+    @Test
+    void testUnboundedLimitReturnsEverything() {
+        List<Integer> items = List.of(5, 3, 9, 1, 7);
+        Iterable<Integer> iterable = () -> IntStream.of(5, 3, 9, 1, 7).iterator();
+
+        assertThat(TopK.smallest(items, Integer.MAX_VALUE, Comparator.naturalOrder())).isEqualTo(List.of(1, 3, 5, 7, 9));
+        assertThat(TopK.smallest(iterable, Integer.MAX_VALUE, Comparator.naturalOrder()))
+            .isEqualTo(List.of(1, 3, 5, 7, 9));
+    }
+}